@@ -0,0 +1,155 @@
+package com.example.bench;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.example.BufferPool;
+import com.example.LogLineEncoder;
+import com.example.LogSampler;
+import com.example.RingBufferAppender;
+import com.example.WebhookHandler;
+import com.example.WebhookJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ack latency of {@code POST /webhook} on several threads with its per-request
+ * log line on and off. Lines are JSON-encoded and written to
+ * {@code /dev/null}, so the numbers show what logging costs the request
+ * thread rather than how fast the terminal is.
+ *
+ * <ul>
+ *   <li>{@code off} raises {@code com.example} to {@code WARN}, so the line
+ *       is never built.</li>
+ *   <li>{@code sync} encodes and writes on the request thread, as a plain
+ *       {@code ConsoleAppender} does, flushing each line.</li>
+ *   <li>{@code ring} hands each event to the {@link RingBufferAppender};
+ *       one background thread encodes and writes.</li>
+ *   <li>{@code ringSampled} adds the {@link LogSampler} at 100 lines a
+ *       second, then one in 100.</li>
+ * </ul>
+ * Compare the {@code p0.99} and {@code p0.999} rows as well as the mean.
+ * Events the ring dropped or the sampler let go are printed at teardown.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"off", "sync", "ring", "ringSampled"})
+        public String logging;
+
+        WebhookJournal journal;
+        WebhookHandler handler;
+        private RingBufferAppender ring;
+        private LogSampler sampler;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+            Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+            root.detachAndStopAllAppenders();
+            context.getLogger("com.example").setLevel("off".equals(logging)
+                    ? ch.qos.logback.classic.Level.WARN : ch.qos.logback.classic.Level.INFO);
+
+            LogLineEncoder encoder = new LogLineEncoder();
+            encoder.setContext(context);
+            encoder.start();
+            OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+            sink.setContext(context);
+            sink.setName("DEVNULL");
+            sink.setEncoder(encoder);
+            sink.setImmediateFlush(true);
+            sink.setOutputStream(devNull());
+            sink.start();
+
+            Appender<ILoggingEvent> appender = sink;
+            if (logging.startsWith("ring")) {
+                ring = new RingBufferAppender();
+                ring.setContext(context);
+                ring.setName("ASYNC");
+                ring.addAppender(sink);
+                if ("ringSampled".equals(logging)) {
+                    sampler = new LogSampler();
+                    sampler.setContext(context);
+                    sampler.start();
+                    ring.addFilter(sampler);
+                }
+                ring.start();
+                appender = ring;
+            }
+            root.addAppender(appender);
+
+            journal = WebhookJournal.open(new WebhookJournal.Config(
+                    Files.createTempDirectory("logging-bench-"),
+                    64 * 1024 * 1024, Integer.MAX_VALUE, 0, 256L * 1024 * 1024));
+            handler = new WebhookHandler(journal, new BufferPool(8, 64 * 1024), WebhookIngestBenchmark.admitAll());
+        }
+
+        /** Lets retention reclaim segments between iterations. */
+        @TearDown(Level.Iteration)
+        public void consumeAll() {
+            journal.commit(journal.endOffset());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (ring != null) {
+                System.out.printf("%n%s: %d logged, %d dropped, %d sampled out%n", logging,
+                        ring.enqueued(), ring.dropped(), sampler == null ? 0 : sampler.sampledOut());
+                ring.stop();
+            }
+            journal.close();
+        }
+
+        private static OutputStream devNull() throws IOException {
+            Path devNull = Paths.get("/dev/null");
+            return Files.exists(devNull) ? new FileOutputStream(devNull.toFile()) : OutputStream.nullOutputStream();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+        StubExchange exchange;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            exchange = new StubExchange("POST", "/webhook", WebhookIngestBenchmark.payload(512));
+        }
+    }
+
+    @Benchmark
+    public int ack(Server server, Request request) {
+        server.handler.handle(request.exchange.reset());
+        return request.exchange.getResponseCode();
+    }
+}
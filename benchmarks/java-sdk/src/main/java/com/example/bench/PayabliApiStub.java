@@ -0,0 +1,441 @@
+package com.example.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Payabli API endpoints the example apps call, with
+ * latency and fault injection, so full-system load tests run offline.
+ *
+ * <p>Point an app at it with {@code PAYABLI_API_URL=http://localhost:9000/api}.
+ * Served operations: {@code addCustomer}, {@code deleteCustomer},
+ * {@code listCustomers} (backed by an in-memory customer store, paged by
+ * {@code fromRecord}/{@code limitRecord}), {@code addMethod},
+ * {@code getpaidv2}, and {@code addNotification}, {@code deleteNotification}
+ * and {@code listNotificationsOrg} (backed by an in-memory notification
+ * store, also paged). Response bodies follow the documented API shapes closely enough for
+ * the SDK to deserialize them.
+ *
+ * <p>Each call sleeps for a log-normal latency with the given median and p99,
+ * fails with a 500 at {@code errorRate}, and is answered 429 once the
+ * stub-wide {@code throttleRps} is exceeded. Any of these can be set per
+ * operation, e.g. {@code latencyMs.getpaidv2=300}.
+ *
+ * <p>Webhooks: every approved {@code getpaidv2} fires an ApprovedPayment
+ * event once per registered notification, so duplicate registrations of one
+ * target multiply its deliveries as they do against the real API (and once
+ * at {@code webhookUrl}), and {@code webhookRate} fires a steady stream of
+ * events per second on top. With {@code webhookSecret} set, each event
+ * carries an {@code X-Webhook-Signature: sha256=<hex HMAC of the body>}
+ * header for a webhook server that verifies signatures.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.bench.PayabliApiStub \
+ *     [port=9000] [latencyMs=40] [latencyP99Ms=250] [errorRate=0] [throttleRps=0] \
+ *     [webhookUrl=http://localhost:3000/webhook] [webhookRate=0] [webhookSecret=]
+ * </pre>
+ */
+public final class PayabliApiStub {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final class Route {
+        final String operation;
+        final String method;
+        final Pattern path;
+
+        Route(String operation, String method, String path) {
+            this.operation = operation;
+            this.method = method;
+            this.path = Pattern.compile(".*" + path + "/?$", Pattern.CASE_INSENSITIVE);
+        }
+    }
+
+    private static final List<Route> ROUTES = List.of(
+            new Route("addCustomer", "POST", "/Customer/single/([^/]+)"),
+            new Route("deleteCustomer", "DELETE", "/Customer/(\\d+)"),
+            new Route("listCustomers", "GET", "/Query/customers/([^/]+)"),
+            new Route("addMethod", "POST", "/TokenStorage/add"),
+            new Route("getpaidv2", "POST", "/v2/MoneyIn/getpaid"),
+            new Route("addNotification", "POST", "/Notification"),
+            new Route("deleteNotification", "DELETE", "/Notification/(\\d+)"),
+            new Route("listNotificationsOrg", "GET", "/Query/notifications/org/(\\d+)"));
+
+    /** Latency, fault and counter state for one operation. */
+    private static final class Operation {
+        final double medianMs;
+        final double sigma;
+        final double errorRate;
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+
+        Operation(double medianMs, double p99Ms, double errorRate) {
+            this.medianMs = medianMs;
+            // p99 of a log-normal sits 2.326 sigma above the median in log space.
+            this.sigma = medianMs > 0 && p99Ms > medianMs ? Math.log(p99Ms / medianMs) / 2.326 : 0;
+            this.errorRate = errorRate;
+        }
+
+        long sampleLatencyMs() {
+            if (medianMs <= 0) return 0;
+            return Math.round(medianMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+    private final RateLimit throttle;
+    private final ConcurrentSkipListMap<Long, ObjectNode> customers = new ConcurrentSkipListMap<>();
+    private final AtomicLong ids = new AtomicLong(1000);
+    private final Set<String> webhookTargets = ConcurrentHashMap.newKeySet();
+    // Registered notifications by ID; like the real API, each one is a
+    // separate delivery, so duplicate registrations multiply webhooks.
+    private final ConcurrentSkipListMap<Long, ObjectNode> notifications = new ConcurrentSkipListMap<>();
+    private final HttpClient webhookClient = HttpClient.newHttpClient();
+    private final SecretKeySpec webhookKey;
+    private final LongAdder webhooksSent = new LongAdder();
+    private final LongAdder webhooksAcked = new LongAdder();
+    private final LongAdder webhooksRefused = new LongAdder();
+    private final LongAdder webhooksFailed = new LongAdder();
+
+    private PayabliApiStub(String[] args) {
+        for (Route route : ROUTES) {
+            String op = route.operation;
+            operations.put(op, new Operation(
+                    doubleArg(args, "latencyMs", op, 40),
+                    doubleArg(args, "latencyP99Ms", op, 250),
+                    doubleArg(args, "errorRate", op, 0)));
+        }
+        this.throttle = new RateLimit(doubleArg(args, "throttleRps", null, 0));
+        String secret = stringArg(args, "webhookSecret", "");
+        this.webhookKey = secret.isEmpty() ? null
+                : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = (int) doubleArg(args, "port", null, 9000);
+        String webhookUrl = stringArg(args, "webhookUrl", "");
+        double webhookRate = doubleArg(args, "webhookRate", null, 0);
+
+        PayabliApiStub stub = new PayabliApiStub(args);
+        if (!webhookUrl.isEmpty()) stub.webhookTargets.add(webhookUrl);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext("/", stub::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        System.out.printf("Payabli API stub listening on http://localhost:%d/api%n", port);
+
+        ScheduledExecutorService timers = Executors.newScheduledThreadPool(1);
+        if (webhookRate > 0) {
+            long periodMicros = Math.max(1, (long) (1_000_000 / webhookRate));
+            timers.scheduleAtFixedRate(() -> stub.fireWebhooks("3-" + stub.ids.incrementAndGet(), "stub-entry", 1.00),
+                    periodMicros, periodMicros, TimeUnit.MICROSECONDS);
+        }
+        timers.scheduleAtFixedRate(stub::printStats, 5, 5, TimeUnit.SECONDS);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            for (Route route : ROUTES) {
+                Matcher match = route.path.matcher(path);
+                if (!route.method.equals(method) || !match.matches()) continue;
+
+                Operation op = operations.get(route.operation);
+                op.calls.increment();
+                if (!throttle.tryAcquire()) {
+                    op.throttled.increment();
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    send(exchange, 429, error("Too many requests"));
+                    return;
+                }
+                long latency = op.sampleLatencyMs();
+                if (latency > 0) Thread.sleep(latency);
+                if (op.errorRate > 0 && ThreadLocalRandom.current().nextDouble() < op.errorRate) {
+                    op.errors.increment();
+                    send(exchange, 500, error("Injected fault"));
+                    return;
+                }
+                send(exchange, 200, respond(route.operation, match, exchange));
+                return;
+            }
+            send(exchange, 404, error("No stub for " + method + " " + path));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private ObjectNode respond(String operation, Matcher match, HttpExchange exchange) throws IOException {
+        switch (operation) {
+            case "addCustomer": {
+                JsonNode body = readBody(exchange);
+                long id = ids.incrementAndGet();
+                ObjectNode customer = JSON.createObjectNode().put("customerId", id);
+                body.fields().forEachRemaining(field -> {
+                    if (field.getValue().isValueNode()) {
+                        String name = field.getKey();
+                        customer.set(Character.toUpperCase(name.charAt(0)) + name.substring(1), field.getValue());
+                    }
+                });
+                customers.put(id, customer);
+                return success(customer);
+            }
+            case "deleteCustomer": {
+                long id = Long.parseLong(match.group(1));
+                customers.remove(id);
+                return success(JSON.getNodeFactory().numberNode(id));
+            }
+            case "listCustomers": {
+                Map<String, String> query = query(exchange.getRequestURI());
+                int from = Integer.parseInt(query.getOrDefault("fromRecord", "0"));
+                int limit = Integer.parseInt(query.getOrDefault("limitRecord", "20"));
+                ArrayNode records = JSON.createArrayNode();
+                customers.values().stream().skip(from).limit(limit).forEach(records::add);
+                ObjectNode response = JSON.createObjectNode();
+                response.set("Records", records);
+                response.putObject("Summary")
+                        .put("totalRecords", customers.size())
+                        .put("pageSize", limit)
+                        .put("totalPages", limit == 0 ? 0 : (customers.size() + limit - 1) / limit);
+                return response;
+            }
+            case "addMethod":
+                return success(JSON.createObjectNode()
+                        .put("referenceId", "stub-method-" + ids.incrementAndGet())
+                        .put("resultCode", 1)
+                        .put("resultText", "Approved"));
+            case "getpaidv2": {
+                JsonNode body = readBody(exchange);
+                String transId = "3-" + ids.incrementAndGet();
+                fireWebhooks(transId, body.path("entryPoint").asText("stub-entry"),
+                        body.path("paymentDetails").path("totalAmount").asDouble(0));
+                ObjectNode response = JSON.createObjectNode()
+                        .put("code", "A0000")
+                        .put("reason", "Approved")
+                        .put("explanation", "Transaction approved by stub")
+                        .put("action", "");
+                response.putObject("data")
+                        .put("paymentTransId", transId)
+                        .put("resultCode", "A0000")
+                        .put("resultText", "Approved")
+                        .put("transStatus", 1);
+                return response;
+            }
+            case "addNotification": {
+                JsonNode body = readBody(exchange);
+                long id = ids.incrementAndGet();
+                ObjectNode notification = JSON.createObjectNode()
+                        .put("notificationId", id)
+                        .put("ownerId", body.path("ownerId").asLong())
+                        .put("ownerType", body.path("ownerType").asInt())
+                        .put("target", body.path("target").asText(""))
+                        .put("method", body.path("method").asText(""))
+                        .put("frequency", body.path("frequency").asText(""))
+                        .put("status", body.path("status").asInt(1));
+                notification.putObject("content")
+                        .put("eventType", body.path("content").path("eventType").asText(""));
+                notifications.put(id, notification);
+                return success(JSON.getNodeFactory().numberNode(id));
+            }
+            case "deleteNotification": {
+                long id = Long.parseLong(match.group(1));
+                return notifications.remove(id) != null
+                        ? success(JSON.getNodeFactory().numberNode(id))
+                        : error("Notification " + id + " not found");
+            }
+            case "listNotificationsOrg": {
+                long owner = Long.parseLong(match.group(1));
+                Map<String, String> query = query(exchange.getRequestURI());
+                int from = Integer.parseInt(query.getOrDefault("fromRecord", "0"));
+                int limit = Integer.parseInt(query.getOrDefault("limitRecord", "20"));
+                List<ObjectNode> owned = notifications.values().stream()
+                        .filter(n -> n.path("ownerId").asLong() == owner)
+                        .toList();
+                ArrayNode records = JSON.createArrayNode();
+                owned.stream().skip(from).limit(limit).forEach(records::add);
+                ObjectNode response = JSON.createObjectNode();
+                response.set("Records", records);
+                response.putObject("Summary")
+                        .put("totalRecords", owned.size())
+                        .put("pageSize", limit)
+                        .put("totalPages", limit == 0 ? 0 : (owned.size() + limit - 1) / limit);
+                return response;
+            }
+            default:
+                throw new IllegalStateException(operation);
+        }
+    }
+
+    private void fireWebhooks(String transId, String entryPoint, double amount) {
+        for (String target : webhookTargets) {
+            fireWebhook(target, transId, entryPoint, amount);
+        }
+        for (ObjectNode notification : notifications.values()) {
+            String target = notification.path("target").asText("");
+            if (target.isEmpty()
+                    || !"ApprovedPayment".equals(notification.path("content").path("eventType").asText())) continue;
+            fireWebhook(target, transId, entryPoint, amount);
+        }
+    }
+
+    private void fireWebhook(String target, String transId, String entryPoint, double amount) {
+        String payload = JSON.createObjectNode()
+                .put("Event", "ApprovedPayment")
+                .put("transId", transId)
+                .put("entryPoint", entryPoint)
+                .put("totalAmount", amount)
+                .toString();
+        webhooksSent.increment();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(target))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload));
+        if (webhookKey != null) request.header("X-Webhook-Signature", "sha256=" + sign(payload));
+        webhookClient.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) webhooksFailed.increment();
+                    else if (response.statusCode() / 100 == 2) webhooksAcked.increment();
+                    else webhooksRefused.increment();
+                });
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(webhookKey);
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void printStats() {
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<String, Operation> op : operations.entrySet()) {
+            Operation o = op.getValue();
+            if (o.calls.sum() == 0) continue;
+            line.append(String.format("%s=%d(err %d, 429 %d) ", op.getKey(), o.calls.sum(), o.errors.sum(), o.throttled.sum()));
+        }
+        line.append(String.format("webhooks sent=%d acked=%d refused=%d failed=%d",
+                webhooksSent.sum(), webhooksAcked.sum(), webhooksRefused.sum(), webhooksFailed.sum()));
+        System.out.println(line);
+    }
+
+    private static ObjectNode success(JsonNode data) {
+        ObjectNode response = JSON.createObjectNode()
+                .put("isSuccess", true)
+                .put("responseCode", 1)
+                .put("responseText", "Success");
+        response.set("responseData", data);
+        return response;
+    }
+
+    private static ObjectNode error(String message) {
+        return JSON.createObjectNode()
+                .put("isSuccess", false)
+                .put("responseText", message);
+    }
+
+    private static JsonNode readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readAllBytes();
+            return body.length == 0 ? JSON.createObjectNode() : JSON.readTree(body);
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new LinkedHashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = JSON.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    /** Stub-wide requests-per-second cap; 0 disables it. */
+    private static final class RateLimit {
+        private final double perSecond;
+        private double tokens;
+        private long last = System.nanoTime();
+
+        RateLimit(double perSecond) {
+            this.perSecond = perSecond;
+            this.tokens = perSecond;
+        }
+
+        synchronized boolean tryAcquire() {
+            if (perSecond <= 0) return true;
+            long now = System.nanoTime();
+            tokens = Math.min(perSecond, tokens + (now - last) * perSecond / 1e9);
+            last = now;
+            if (tokens < 1) return false;
+            tokens -= 1;
+            return true;
+        }
+    }
+
+    /** {@code name.operation=value}, else {@code name=value}, else the fallback. */
+    private static double doubleArg(String[] args, String name, String operation, double fallback) {
+        String value = operation == null ? null : stringArg(args, name + "." + operation, null);
+        if (value == null) value = stringArg(args, name, null);
+        return value == null ? fallback : Double.parseDouble(value);
+    }
+
+    private static String stringArg(String[] args, String name, String fallback) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) return arg.substring(name.length() + 1);
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request for either example app's shaded jar: from process
+ * launch until {@code url} first answers {@code 2xx}, over {@code runs}
+ * fresh JVMs per mode. Modes alternate run by run so a noisy neighbour
+ * hits both alike.
+ *
+ * <ul>
+ *   <li>{@code default} launches {@code java -jar} with no extra flags.</li>
+ *   <li>{@code cds} adds {@code -XX:SharedArchiveFile} for the archive
+ *       written by the app's {@code appcds} Maven profile.</li>
+ * </ul>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.bench.StartupBenchmark \
+ *     jar=../../sdk/java-sdk/target/sdk-example-1.0.0.jar url=http://localhost:8000/ \
+ *     [runs=10] [modes=default,cds] [archive=&lt;jar dir&gt;/app-cds.jsa] [jvmArgs=-Xmx256m,...] [env.STARTUP_MODE=fast]
+ * </pre>
+ * The app runs from the directory above {@code target/}, so it reads that
+ * app's {@code .env}; {@code env.NAME=value} sets an environment variable,
+ * which a value in {@code .env} overrides. Each run's output is kept in a
+ * temporary log that is named when a run fails.
+ */
+public final class StartupBenchmark {
+
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Paths.get(stringArg(args, "jar", "../../sdk/java-sdk/target/sdk-example-1.0.0.jar")).toAbsolutePath();
+        URI url = URI.create(stringArg(args, "url", "http://localhost:8000/"));
+        int runs = Integer.parseInt(stringArg(args, "runs", "10"));
+        Path archive = Paths.get(stringArg(args, "archive", jar.resolveSibling("app-cds.jsa").toString()));
+        String jvmArgs = stringArg(args, "jvmArgs", "");
+        Map<String, String> env = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("env.") && eq > 4) env.put(arg.substring(4, eq), arg.substring(eq + 1));
+        }
+
+        if (!Files.isRegularFile(jar)) {
+            System.err.printf("No jar at %s; build the app with mvn package first%n", jar);
+            System.exit(1);
+        }
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        for (String mode : stringArg(args, "modes", "default,cds").split(",")) {
+            List<String> flags = new ArrayList<>();
+            if (!jvmArgs.isEmpty()) flags.addAll(Arrays.asList(jvmArgs.split(",")));
+            if ("cds".equals(mode)) {
+                if (!Files.isRegularFile(archive)) {
+                    System.err.printf("No archive at %s; skipping cds (build it with mvn -Pappcds verify)%n", archive);
+                    continue;
+                }
+                flags.add("-XX:SharedArchiveFile=" + archive);
+            } else if (!"default".equals(mode)) {
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+            modes.put(mode, flags);
+        }
+
+        Path workDir = jar.getParent().getParent();
+        Path logs = Files.createTempDirectory("startup-benchmark-");
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        Map<String, long[]> results = new LinkedHashMap<>();
+        for (String mode : modes.keySet()) results.put(mode, new long[runs]);
+
+        System.out.printf("jar=%s url=%s runs=%d%n", jar, url, runs);
+        for (int run = 0; run < runs; run++) {
+            for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                Path log = logs.resolve(mode.getKey() + "-" + run + ".log");
+                long millis = launch(jar, workDir, mode.getValue(), env, url, http, log);
+                if (millis < 0) {
+                    System.err.printf("%s run %d never answered %s; see %s%n", mode.getKey(), run, url, log);
+                    System.exit(1);
+                }
+                results.get(mode.getKey())[run] = millis;
+            }
+        }
+
+        System.out.printf("%-8s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+        for (Map.Entry<String, long[]> result : results.entrySet()) {
+            long[] sorted = result.getValue().clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-8s %10d %10d %10d%n", result.getKey(),
+                    sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1]);
+        }
+    }
+
+    /** Starts the jar, polls {@code url} until it answers 2xx, stops the app and returns the wait, or -1. */
+    private static long launch(Path jar, Path workDir, List<String> flags, Map<String, String> env,
+                               URI url, HttpClient http, Path log) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(flags);
+        command.add("-jar");
+        command.add(jar.toString());
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        builder.environment().putAll(env);
+        // Stdin stays an open pipe, so an app that prompts waits instead of failing.
+        builder.redirectInput(ProcessBuilder.Redirect.PIPE);
+
+        HttpRequest request = HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(2)).GET().build();
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS) && process.isAlive()) {
+                try {
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() / 100 == 2) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet, or closed the connection while starting.
+                }
+                Thread.sleep(5);
+            }
+            return -1;
+        } finally {
+            // SIGTERM first, so shutdown hooks close files the next run opens.
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static String stringArg(String[] args, String name, String fallback) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) return arg.substring(name.length() + 1);
+        }
+        return fallback;
+    }
+}
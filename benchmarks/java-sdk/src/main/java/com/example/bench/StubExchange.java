@@ -0,0 +1,67 @@
+package com.example.bench;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/**
+ * Reusable in-memory {@link HttpExchange} so benchmarks measure a handler's
+ * own cost without sockets or the JDK server's dispatcher in the way.
+ * Call {@link #reset()} before each invocation.
+ */
+public final class StubExchange extends HttpExchange {
+
+    private static final OutputStream DISCARD = OutputStream.nullOutputStream();
+
+    private final String method;
+    private final URI uri;
+    private final Headers requestHeaders = new Headers();
+    private final Headers responseHeaders = new Headers();
+    private final ByteArrayInputStream body;
+    private final InetSocketAddress remote;
+    private int responseCode = -1;
+
+    public StubExchange(String method, String path, byte[] body) {
+        this(method, path, body, new InetSocketAddress("127.0.0.1", 40000));
+    }
+
+    public StubExchange(String method, String path, byte[] body, InetSocketAddress remote) {
+        this.method = method;
+        this.uri = URI.create(path);
+        this.body = new ByteArrayInputStream(body);
+        this.remote = remote;
+    }
+
+    /** Rewinds the body and clears the response so the exchange can be handled again. */
+    public StubExchange reset() {
+        body.reset();
+        responseHeaders.clear();
+        responseCode = -1;
+        return this;
+    }
+
+    @Override public Headers getRequestHeaders()           { return requestHeaders; }
+    @Override public Headers getResponseHeaders()          { return responseHeaders; }
+    @Override public URI getRequestURI()                   { return uri; }
+    @Override public String getRequestMethod()             { return method; }
+    @Override public HttpContext getHttpContext()          { return null; }
+    @Override public void close()                          {}
+    @Override public InputStream getRequestBody()          { return body; }
+    @Override public OutputStream getResponseBody()        { return DISCARD; }
+    @Override public void sendResponseHeaders(int rCode, long responseLength) { responseCode = rCode; }
+    @Override public InetSocketAddress getRemoteAddress()  { return remote; }
+    @Override public int getResponseCode()                 { return responseCode; }
+    @Override public InetSocketAddress getLocalAddress()   { return remote; }
+    @Override public String getProtocol()                  { return "HTTP/1.1"; }
+    @Override public Object getAttribute(String name)      { return null; }
+    @Override public void setAttribute(String name, Object value) {}
+    @Override public void setStreams(InputStream i, OutputStream o) {}
+    @Override public HttpPrincipal getPrincipal()          { return null; }
+}
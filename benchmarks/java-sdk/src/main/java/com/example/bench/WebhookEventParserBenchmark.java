@@ -0,0 +1,76 @@
+package com.example.bench;
+
+import com.example.WebhookEvent;
+import com.example.WebhookEventParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracting event type, transaction ID, amount and paypoint from an
+ * ApprovedPayment payload: the streaming {@link WebhookEventParser} into a
+ * reused flyweight versus {@code ObjectMapper.readTree} and tree lookups.
+ * The payload sits in a direct buffer, like a journal entry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookEventParserBenchmark {
+
+    /** Number of extra, unconfigured fields padding out the payload. */
+    @Param({"0", "40"})
+    public int extraFields;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final WebhookEventParser parser = new WebhookEventParser(WebhookEventParser.defaultAliases());
+    private final WebhookEvent event = new WebhookEvent();
+    private ByteBuffer payload;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("{\"Event\":\"ApprovedPayment\"");
+        for (int i = 0; i < extraFields; i++) {
+            json.append(",\"field").append(i).append("\":\"value-").append(i).append('"');
+        }
+        json.append(",\"transId\":\"3-1234567890\",\"entryPoint\":\"41xxxxxa7e\",\"totalAmount\":100.25,")
+            .append("\"customer\":{\"firstName\":\"Test\",\"lastName\":\"User\"}}");
+        byte[] payloadBytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        payload = ByteBuffer.allocateDirect(payloadBytes.length).put(payloadBytes).flip();
+    }
+
+    @Benchmark
+    public WebhookEvent streaming() throws Exception {
+        parser.parse(payload, event);
+        return event;
+    }
+
+    @Benchmark
+    public void readTree(Blackhole bh) throws Exception {
+        // readTree needs an array; copying out of the direct buffer is part of its cost.
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        JsonNode tree = mapper.readTree(bytes);
+        bh.consume(tree.path("Event").asText());
+        bh.consume(tree.path("transId").asText());
+        bh.consume(tree.path("totalAmount").asDouble());
+        bh.consume(tree.path("entryPoint").asText());
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.bench;
+
+import com.example.BufferPool;
+import com.example.WebhookExecutors;
+import com.example.WebhookHandler;
+import com.example.WebhookJournal;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivery-storm load test comparing the {@code WEBHOOK_EXECUTOR} strategies
+ * on ack latency and thread count.
+ *
+ * <p>Starts the real {@link WebhookHandler} on an ephemeral port for each
+ * strategy, holds {@code concurrency} POSTs in flight until {@code requests}
+ * have completed, and reports p50/p99/max ack latency, status counts, the
+ * peak number of platform threads the run added, and process RSS.
+ * {@code workMs} stalls each exchange before the handler runs to stand in
+ * for a slow disk or downstream call.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.bench.WebhookExecutorLoadTest \
+ *     [requests=20000] [concurrency=512] [workMs=20] [threads=32] [queue=256] [modes=virtual,bounded,fixed]
+ * </pre>
+ * Run one mode per JVM for a clean RSS comparison.
+ */
+public final class WebhookExecutorLoadTest {
+
+    private static final byte[] PAYLOAD = ("{\"Event\":\"ApprovedPayment\",\"transId\":\"3-1234567890\","
+            + "\"paypoint\":\"41xxxxxa7e\",\"totalAmount\":1.00}").getBytes();
+
+    public static void main(String[] args) throws Exception {
+        int requests    = intArg(args, "requests", 20_000);
+        int concurrency = intArg(args, "concurrency", 512);
+        int workMs      = intArg(args, "workMs", 20);
+        int threads     = intArg(args, "threads", 32);
+        int queue       = intArg(args, "queue", 256);
+        String modes    = stringArg(args, "modes", "virtual,bounded,fixed");
+
+        System.out.printf("requests=%d concurrency=%d workMs=%d threads=%d queue=%d%n",
+                requests, concurrency, workMs, threads, queue);
+        System.out.printf("%-8s %10s %10s %10s %8s %8s %12s %10s%n",
+                "mode", "p50 ms", "p99 ms", "max ms", "200", "503", "peakThreads", "rss MB");
+
+        for (String mode : modes.split(",")) {
+            run(WebhookExecutors.Mode.parse(mode), requests, concurrency, workMs, threads, queue);
+        }
+    }
+
+    private static void run(WebhookExecutors.Mode mode, int requests, int concurrency,
+                            int workMs, int threads, int queue) throws Exception {
+        Path dir = Files.createTempDirectory("webhook-loadtest-");
+        WebhookJournal journal = WebhookJournal.open(new WebhookJournal.Config(
+                dir, 64 * 1024 * 1024, 1024, 200, Long.MAX_VALUE));
+        WebhookHandler handler = new WebhookHandler(journal, new BufferPool(threads * 2, 64 * 1024),
+                WebhookIngestBenchmark.admitAll());
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.createContext("/", exchange -> {
+            if (workMs > 0) {
+                try {
+                    Thread.sleep(workMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            handler.handle(exchange);
+        });
+        ExecutorService executor = WebhookExecutors.create(mode, threads, queue);
+        server.setExecutor(executor);
+        server.start();
+
+        // The handler logs every request; keep that off the console and out of the timings.
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        ExecutorService clientPool = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder().executor(clientPool).build();
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/webhook");
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        int baselineThreads = threadBean.getThreadCount();
+        threadBean.resetPeakThreadCount();
+
+        long[] latencies = new long[requests];
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<CompletableFuture<?>> pending = new ArrayList<>(requests);
+        long shedBefore = WebhookExecutors.shedCount();
+
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int slot = i;
+            long start = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(PAYLOAD))
+                    .build();
+            pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[slot] = System.nanoTime() - start;
+                        if (response != null && response.statusCode() == 200) ok.incrementAndGet();
+                        else if (response != null && response.statusCode() == 503) shed.incrementAndGet();
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+
+        int peakThreads = threadBean.getPeakThreadCount() - baselineThreads;
+        long rssMb = residentSetKb() / 1024;
+        System.setOut(stdout);
+
+        Arrays.sort(latencies);
+        System.out.printf("%-8s %10.2f %10.2f %10.2f %8d %8d %12d %10d%n",
+                mode.name().toLowerCase(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6,
+                ok.get(), shed.get(), peakThreads, rssMb);
+        if (WebhookExecutors.shedCount() - shedBefore != shed.get()) {
+            System.out.printf("  (server shed %d exchanges)%n", WebhookExecutors.shedCount() - shedBefore);
+        }
+
+        server.stop(0);
+        executor.shutdownNow();
+        clientPool.shutdownNow();
+        journal.close();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /** Resident set size from /proc, or -1 where that is unavailable. */
+    private static long residentSetKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (Exception ignored) {}
+        return -1;
+    }
+
+    private static int intArg(String[] args, String name, int fallback) {
+        return Integer.parseInt(stringArg(args, name, Integer.toString(fallback)));
+    }
+
+    private static String stringArg(String[] args, String name, String fallback) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) return arg.substring(name.length() + 1);
+        }
+        return fallback;
+    }
+}
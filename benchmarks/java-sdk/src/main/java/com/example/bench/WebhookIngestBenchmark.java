@@ -0,0 +1,96 @@
+package com.example.bench;
+
+import com.example.AdmissionController;
+import com.example.BufferPool;
+import com.example.WebhookHandler;
+import com.example.WebhookJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ack latency and allocation per {@code POST /webhook} for the original
+ * {@code readAllBytes()} ingest ({@code copy}) versus pooled buffers
+ * ({@code pooled}). Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm} (bytes per request).
+ *
+ * <p>Request logging is turned off so the numbers isolate the ingest path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookIngestBenchmark {
+
+    @Param({"copy", "pooled"})
+    public String ingest;
+
+    @Param({"512", "8192"})
+    public int payloadBytes;
+
+    private WebhookJournal journal;
+    private WebhookHandler handler;
+    private StubExchange exchange;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.example"))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+
+        journal = WebhookJournal.open(new WebhookJournal.Config(
+                Files.createTempDirectory("webhook-ingest-bench-"),
+                64 * 1024 * 1024, Integer.MAX_VALUE, 0, 256L * 1024 * 1024));
+        BufferPool pool = "pooled".equals(ingest) ? new BufferPool(4, 64 * 1024) : null;
+        handler = new WebhookHandler(journal, pool, admitAll());
+        exchange = new StubExchange("POST", "/webhook", payload(payloadBytes));
+    }
+
+    /** Lets retention reclaim segments between iterations. */
+    @TearDown(Level.Iteration)
+    public void consumeAll() {
+        journal.commit(journal.endOffset());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Benchmark
+    public int ingest() {
+        handler.handle(exchange.reset());
+        return exchange.getResponseCode();
+    }
+
+    /**
+     * Admission as the app builds it, but never shedding and with no source
+     * cap or body limit, so only the ingest path itself is measured.
+     */
+    static AdmissionController admitAll() {
+        return new AdmissionController(() -> false, () -> 0, 0, 0, 5, 60, 0);
+    }
+
+    static byte[] payload(int size) {
+        StringBuilder json = new StringBuilder("{\"Event\":\"ApprovedPayment\",\"transId\":\"3-1234567890\","
+                + "\"paypoint\":\"41xxxxxa7e\",\"totalAmount\":1.00,\"note\":\"");
+        while (json.length() < size - 2) json.append('x');
+        return json.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.bench;
+
+import com.example.WebhookConsumerPipeline;
+import com.example.WebhookEventParser;
+import com.example.WebhookJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Consumer throughput (events/s) as the lane count grows from 1 to 16.
+ *
+ * <p>Each invocation replays {@link #EVENTS} journaled ApprovedPayment events
+ * spread over 64 paypoints through a fresh {@link WebhookConsumerPipeline}
+ * and waits for every lane to drain. The sink stands in for a downstream
+ * action: {@code cpu} burns CPU, {@code io} parks the lane as if waiting on a
+ * network call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class WebhookPipelineBenchmark {
+
+    static final int EVENTS = 4096;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int lanes;
+
+    @Param({"cpu", "io"})
+    public String work;
+
+    private WebhookJournal journal;
+    private WebhookConsumerPipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void fillJournal() throws Exception {
+        journal = WebhookJournal.open(new WebhookJournal.Config(
+                Files.createTempDirectory("webhook-pipeline-bench-"),
+                16 * 1024 * 1024, Integer.MAX_VALUE, 0, Long.MAX_VALUE));
+        for (int i = 0; i < EVENTS; i++) {
+            journal.append(("{\"Event\":\"ApprovedPayment\",\"transId\":\"3-" + i
+                    + "\",\"entryPoint\":\"paypoint-" + (i % 64) + "\",\"totalAmount\":1.00}")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void rewind() {
+        journal.commit(journal.startOffset());
+        boolean io = "io".equals(work);
+        pipeline = new WebhookConsumerPipeline(journal, WebhookEventParser.defaultAliases(),
+                lanes, 1024, Long.MAX_VALUE, 0, 0,
+                (event, parsed, entry) -> {
+                    if (io) LockSupport.parkNanos(20_000);
+                    else Blackhole.consumeCPU(2_000);
+                });
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopLanes() {
+        pipeline.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long drain() throws Exception {
+        pipeline.runUntil(journal.endOffset());
+        pipeline.awaitIdle(1, TimeUnit.MINUTES);
+        return pipeline.position();
+    }
+}
@@ -0,0 +1,90 @@
+package com.payabli.example;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One small JSON round trip through the app's {@link ApiHttpClient} to a
+ * local server, reusing a pooled connection ({@code warm}) versus dialling a
+ * new one for every call ({@code cold}, the pool is emptied first).
+ *
+ * <p>Loopback makes a TCP handshake nearly free, so the gap here is a floor:
+ * against the real API each cold call also pays the network round trips and
+ * the TLS handshake.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiConnectionBenchmark {
+
+    private static final byte[] RESPONSE = "{\"isSuccess\":true,\"responseText\":\"Success\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"warm", "cold"})
+    public String connections;
+
+    private HttpServer server;
+    private OkHttpClient client;
+    private Request request;
+    private boolean cold;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(RESPONSE);
+            }
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+
+        client = new ApiHttpClient(16, 300, 32, true, 5000, 30000).client();
+        request = new Request.Builder()
+                .url("http://127.0.0.1:" + server.getAddress().getPort() + "/api/Query/customers/entry")
+                .build();
+        cold = "cold".equals(connections);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.connectionPool().evictAll();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public int roundTrip() throws IOException {
+        if (cold) client.connectionPool().evictAll();
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().bytes().length;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.payabli.example;
+
+import io.github.payabli.api.types.CustomerQueryRecords;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the {@code /api/list} customer table through
+ * {@link CustomerTableWriter} into a stream that discards its input, so the
+ * score and {@code gc.alloc.rate.norm} cover rendering, escaping and UTF-8
+ * encoding only. {@code renderPage} writes a whole page; {@code renderRow}
+ * writes a single row, so its {@code gc.alloc.rate.norm} is the allocation
+ * per row directly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerTableBenchmark {
+
+    @Param({"50", "500"})
+    public int rows;
+
+    private final Utf8HtmlWriter sink = new Utf8HtmlWriter(OutputStream.nullOutputStream(), 8192);
+    private CustomerListQuery query;
+    private List<CustomerQueryRecords> records;
+
+    @Setup
+    public void setUp() {
+        query = new CustomerListQuery("entry", 0, rows, Map.of());
+        records = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            records.add(CustomerQueryRecords.builder()
+                    .firstname("Customer" + i)
+                    .lastname(i % 10 == 0 ? "O'Brien & Sons" : "Lastname" + i)
+                    .email("customer" + i + "@example.com")
+                    .address(i + " Example Street")
+                    .city("Springfield")
+                    .state("IL")
+                    .zip("62701")
+                    .build());
+        }
+    }
+
+    private int next;
+
+    @Benchmark
+    public Utf8HtmlWriter renderPage() throws IOException {
+        CustomerTableWriter.write(sink, query, records);
+        return sink;
+    }
+
+    @Benchmark
+    public Utf8HtmlWriter renderRow() throws IOException {
+        // Cycle through the rows so every tenth one has characters to escape.
+        CustomerTableWriter.writeRow(sink, records.get(next++ % rows));
+        return sink;
+    }
+}
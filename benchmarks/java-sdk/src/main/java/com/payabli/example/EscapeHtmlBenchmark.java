@@ -0,0 +1,76 @@
+package com.payabli.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTML escaping of a typical customer field, with nothing to escape
+ * ({@code clean}) and with one of each special character ({@code dirty}):
+ * to a new string, appended to a reused builder, and encoded straight to
+ * UTF-8 bytes. {@code replaceChain} is the five-{@code String.replace}
+ * escaper the app used before, kept as a baseline.
+ *
+ * <p>Lives in the app's package so it can reach package-private helpers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EscapeHtmlBenchmark {
+
+    @Param({"clean", "dirty"})
+    public String input;
+
+    private String value;
+    private final StringBuilder builder = new StringBuilder(128);
+    private final Utf8HtmlWriter bytes = new Utf8HtmlWriter(OutputStream.nullOutputStream(), 8192);
+
+    @Setup
+    public void setUp() {
+        value = "clean".equals(input)
+                ? "1234 Example Street, Springfield"
+                : "O'Brien & Sons <\"Main\" St>";
+    }
+
+    @Benchmark
+    public String escape() {
+        return PayabliExampleApp.escapeHtml(value);
+    }
+
+    @Benchmark
+    public StringBuilder escapeToBuilder() throws IOException {
+        builder.setLength(0);
+        HtmlEscaper.escape(value, builder);
+        return builder;
+    }
+
+    @Benchmark
+    public Utf8HtmlWriter escapeToBytes() throws IOException {
+        return bytes.text(value);
+    }
+
+    @Benchmark
+    public String replaceChain() {
+        return value
+                .replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#x27;");
+    }
+}
@@ -0,0 +1,53 @@
+package com.payabli.example;
+
+import io.github.payabli.api.resources.moneyin.requests.RequestPaymentV2;
+import io.github.payabli.api.types.CustomerData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the SDK request objects the app sends on its hot paths: the
+ * {@code CustomerData} body for {@code addCustomer} (from form or import
+ * fields) and the {@code RequestPaymentV2} / {@code TransRequestBody} for a
+ * stored-method charge.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SdkRequestBuilderBenchmark {
+
+    private final Map<String, String> form = Map.of(
+            "firstname", "Ada",
+            "lastname", "Lovelace",
+            "email", "ada@example.com",
+            "timeZone", "-5",
+            "address", "12 Analytical Way",
+            "city", "London",
+            "state", "LN",
+            "zip", "10001",
+            "country", "US",
+            "hvac", "yes");
+
+    @Benchmark
+    public CustomerData customerData() {
+        return PayabliExampleApp.customerData(form::get);
+    }
+
+    @Benchmark
+    public RequestPaymentV2 paymentRequest() {
+        return PayabliExampleApp.paymentRequest("41benchmark", "stored-method-1234");
+    }
+}
@@ -0,0 +1,53 @@
+package com.payabli.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thymeleaf.context.Context;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering an app page through the Thymeleaf {@code TemplateEngine} in
+ * {@code development} mode (template re-read and re-parsed every time)
+ * versus {@code production} mode (parsed template cached). Production
+ * requests normally skip even this and serve pre-rendered bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    @Param({"create-customer", "transaction"})
+    public String template;
+
+    @Param({"development", "production"})
+    public String mode;
+
+    private TemplatePages pages;
+    private Context variables;
+
+    @Setup
+    public void setUp() {
+        pages = new TemplatePages("development".equals(mode), false);
+        variables = new Context();
+        variables.setVariable("publicToken", "o.benchmark-public-token");
+        variables.setVariable("entryPoint", "41benchmark");
+    }
+
+    @Benchmark
+    public String render() {
+        return pages.render(template, variables);
+    }
+}
@@ -0,0 +1,168 @@
+package com.payabli.example;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The one OkHttp client behind {@code PayabliApiClient}, with its pool,
+ * timeouts and protocols set from configuration instead of OkHttp's
+ * defaults, and counters showing how often a call reused a warm connection.
+ *
+ * <p>The SDK makes blocking {@code execute()} calls, which OkHttp's
+ * dispatcher does not limit, so the per-host cap is enforced here with a
+ * semaphore per host; calls over it wait rather than opening yet another
+ * connection. A call holds its permit until its response body is closed,
+ * since the connection stays busy while the body is read.
+ */
+final class ApiHttpClient {
+
+    private final ConnectionPool pool;
+    private final OkHttpClient client;
+    private final int maxPerHost;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder http2 = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+
+    /**
+     * @param poolSize         idle connections kept open
+     * @param keepAliveSeconds how long an idle connection is kept
+     * @param maxPerHost       concurrent calls allowed to one host
+     * @param negotiateHttp2   negotiate HTTP/2 over TLS (ALPN); HTTP/1.1 only if false
+     * @param connectTimeoutMs TCP + TLS connect timeout
+     * @param readTimeoutMs    timeout between bytes of a response
+     */
+    ApiHttpClient(int poolSize, long keepAliveSeconds, int maxPerHost, boolean negotiateHttp2,
+                  long connectTimeoutMs, long readTimeoutMs) {
+        this.pool = new ConnectionPool(poolSize, keepAliveSeconds, TimeUnit.SECONDS);
+        this.maxPerHost = Math.max(1, maxPerHost);
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(this.maxPerHost);
+        this.client = new OkHttpClient.Builder()
+                .connectionPool(pool)
+                .dispatcher(dispatcher)
+                .protocols(negotiateHttp2
+                        ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(Protocol.HTTP_1_1))
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .addInterceptor(this::limitPerHost)
+                .eventListener(new EventListener() {
+                    @Override
+                    public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+                        opened.increment();
+                    }
+
+                    @Override
+                    public void connectionAcquired(Call call, Connection connection) {
+                        acquired.increment();
+                        if (connection.protocol() == Protocol.HTTP_2) http2.increment();
+                    }
+                })
+                .build();
+    }
+
+    OkHttpClient client() {
+        return client;
+    }
+
+    private Response limitPerHost(Interceptor.Chain chain) throws IOException {
+        Semaphore permits = hostPermits.computeIfAbsent(chain.request().url().host(), host -> new Semaphore(maxPerHost));
+        if (!permits.tryAcquire()) {
+            waited.increment();
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a connection slot");
+            }
+        }
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        ResponseBody body = response.body();
+        if (body == null) {
+            permits.release();
+            return response;
+        }
+        return response.newBuilder().body(releasingOnClose(body, permits)).build();
+    }
+
+    /** {@code body}, releasing one of {@code permits} the first time it is closed. */
+    private static ResponseBody releasingOnClose(ResponseBody body, Semaphore permits) {
+        AtomicBoolean released = new AtomicBoolean();
+        BufferedSource source = Okio.buffer(new ForwardingSource(body.source()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (released.compareAndSet(false, true)) permits.release();
+                }
+            }
+        });
+        return new ResponseBody() {
+            @Override
+            public MediaType contentType() {
+                return body.contentType();
+            }
+
+            @Override
+            public long contentLength() {
+                return body.contentLength();
+            }
+
+            @Override
+            public BufferedSource source() {
+                return source;
+            }
+        };
+    }
+
+    /** Calls that got a connection, new or pooled. */
+    long connectionsAcquired() { return acquired.sum(); }
+
+    /** Connections established; every other acquisition reused one from the pool. */
+    long connectionsOpened() { return opened.sum(); }
+
+    /** Calls that ran over an HTTP/2 connection. */
+    long http2Calls() { return http2.sum(); }
+
+    /** Calls that had to wait for the per-host cap. */
+    long hostLimitWaits() { return waited.sum(); }
+
+    int pooledConnections() { return pool.connectionCount(); }
+
+    int idleConnections() { return pool.idleConnectionCount(); }
+}
@@ -0,0 +1,65 @@
+package com.payabli.example;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency histogram and error count per key (a route, an API operation),
+ * reported on the stats endpoint as {@code <name>_seconds} histograms and
+ * {@code <name>_errors_total} counters labelled {@code <label>="<key>"}.
+ *
+ * <p>Keys are created on first use, so callers must keep them to a small,
+ * fixed set: route patterns rather than raw paths.
+ */
+final class CallMetrics implements StatsHandler.Source {
+
+    private static final class Series {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private final String name;
+    private final String label;
+    private final Map<String, Series> series = new ConcurrentSkipListMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    CallMetrics(String name, String label) {
+        this.name = name;
+        this.label = label;
+    }
+
+    void record(String key, long nanos, boolean failed) {
+        Series s = series.computeIfAbsent(key, k -> new Series());
+        s.latency.record(nanos);
+        if (failed) s.errors.increment();
+    }
+
+    /** Runs {@code call}, recording its latency and whether it threw. */
+    <T> T time(String key, Supplier<T> call) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        inFlight.incrementAndGet();
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            inFlight.decrementAndGet();
+            record(key, System.nanoTime() - start, failed);
+        }
+    }
+
+    @Override
+    public void appendTo(StringBuilder out) {
+        out.append(name).append("_in_flight ").append(inFlight.get()).append('\n');
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            String labels = label + "=\"" + entry.getKey().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+            entry.getValue().latency.appendPrometheus(out, name + "_seconds", labels);
+            out.append(name).append("_errors_total{").append(labels).append("} ")
+               .append(entry.getValue().errors.sum()).append('\n');
+        }
+    }
+}
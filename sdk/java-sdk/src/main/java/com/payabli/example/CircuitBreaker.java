@@ -0,0 +1,78 @@
+package com.payabli.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Consecutive-failure circuit breaker for one upstream call.
+ *
+ * <p>After {@code failureThreshold} failures in a row the circuit opens and
+ * calls are refused without reaching upstream. Once {@code openMillis} has
+ * passed a single trial call is let through (half-open): success closes the
+ * circuit, failure opens it for another period.
+ */
+final class CircuitBreaker {
+
+    static final int CLOSED = 0;
+    static final int OPEN = 1;
+    static final int HALF_OPEN = 2;
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongAdder rejected = new LongAdder();
+
+    private int state = CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /** Whether a call may go upstream now; a refusal is counted. */
+    synchronized boolean allow() {
+        if (state == OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = HALF_OPEN;
+            return true;
+        }
+        if (state == CLOSED) {
+            return true;
+        }
+        // Open, or half-open with the trial call still out.
+        rejected.increment();
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = CLOSED;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Hands back a half-open trial that never reached upstream (for example
+     * because the caller's executor was full), so the next call can try.
+     */
+    synchronized void cancelTrial() {
+        if (state == HALF_OPEN) {
+            state = OPEN;
+        }
+    }
+
+    /** {@link #CLOSED}, {@link #OPEN} or {@link #HALF_OPEN}. */
+    synchronized int state() {
+        return state;
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+}
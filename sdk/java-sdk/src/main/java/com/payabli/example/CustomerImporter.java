@@ -0,0 +1,238 @@
+package com.payabli.example;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams a CSV or NDJSON customer import through {@code addCustomer}.
+ *
+ * <p>Rows are read one at a time and handed to a pool of
+ * {@code concurrency} workers; the reader blocks while that many rows are in
+ * flight, so memory stays bounded whatever the size of the upload. Every
+ * call first takes a permit from the shared {@link RateLimiter}. Each row's
+ * outcome is written to the response as one NDJSON line as soon as it
+ * finishes, so results arrive in completion order rather than row order.
+ */
+final class CustomerImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerImporter.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    enum Format { CSV, NDJSON }
+
+    /** Creates one customer from a row of named fields. */
+    interface RowHandler {
+        void create(Map<String, String> row) throws Exception;
+    }
+
+    private final RowHandler handler;
+    private final RateLimiter rateLimiter;
+    private final int concurrency;
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    CustomerImporter(RowHandler handler, RateLimiter rateLimiter, int concurrency) {
+        this.handler = handler;
+        this.rateLimiter = rateLimiter;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /** Rows being created right now, across every running import. */
+    int inFlight() {
+        return active.get();
+    }
+
+    /** Picks the input format from a {@code format} query value or the request content type. */
+    static Format format(String requested, String contentType) {
+        if (requested != null) {
+            return "csv".equalsIgnoreCase(requested) ? Format.CSV : Format.NDJSON;
+        }
+        return contentType != null && contentType.toLowerCase().contains("csv") ? Format.CSV : Format.NDJSON;
+    }
+
+    /**
+     * Imports every row of {@code in} and streams one result line per row to
+     * {@code out}, followed by a summary line. Returns once every row has
+     * finished or the client has gone away.
+     */
+    void run(InputStream in, Format format, OutputStream out) throws IOException, InterruptedException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ResultWriter results = new ResultWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Semaphore inFlight = new Semaphore(concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "customer-import-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        int rows = 0;
+        try {
+            List<String> header = format == Format.CSV ? readCsvRecord(reader) : null;
+            while (!results.closed) {
+                Map<String, String> row;
+                try {
+                    row = format == Format.CSV ? nextCsvRow(reader, header) : nextJsonRow(reader);
+                } catch (JsonProcessingException e) {
+                    // A malformed NDJSON line is reported and skipped.
+                    results.write(++rows, "error", e.getOriginalMessage(), null);
+                    continue;
+                }
+                if (row == null) break;
+                if (row.isEmpty()) continue;
+
+                int rowNumber = ++rows;
+                inFlight.acquire();
+                rateLimiter.acquire();
+                active.incrementAndGet();
+                workers.execute(() -> {
+                    try {
+                        handler.create(row);
+                        results.write(rowNumber, "created", null, row.get("email"));
+                    } catch (Exception e) {
+                        results.write(rowNumber, "error", e.getMessage(), row.get("email"));
+                    } finally {
+                        active.decrementAndGet();
+                        inFlight.release();
+                    }
+                });
+            }
+            // Wait for the last rows to finish before the summary.
+            inFlight.acquire(concurrency);
+        } finally {
+            workers.shutdownNow();
+        }
+        results.summary(rows);
+        logger.info("Customer import finished: {} rows, {} created, {} failed",
+                rows, results.created.get(), results.failed.get());
+    }
+
+    private static Map<String, String> nextJsonRow(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) return null;
+        if (line.isBlank()) return Map.of();
+        JsonNode node = mapper.readTree(line);
+        Map<String, String> row = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            if (!field.getValue().isNull()) row.put(field.getKey(), field.getValue().asText());
+        }
+        return row;
+    }
+
+    private static Map<String, String> nextCsvRow(BufferedReader reader, List<String> header) throws IOException {
+        if (header == null) return null;
+        List<String> values = readCsvRecord(reader);
+        if (values == null) return null;
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            if (!values.get(i).isEmpty()) row.put(header.get(i), values.get(i));
+        }
+        return row;
+    }
+
+    /**
+     * Reads one RFC 4180 record: comma-separated, optionally double-quoted
+     * fields, with {@code ""} as an escaped quote and line breaks allowed
+     * inside quotes. Returns {@code null} at end of input.
+     */
+    static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) return null;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString().trim());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) break;
+            line = reader.readLine();
+            if (line == null) break;
+            field.append('\n');
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /** Serializes result lines from the worker threads onto the response. */
+    private static final class ResultWriter {
+        private final Writer out;
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        volatile boolean closed;
+
+        ResultWriter(Writer out) {
+            this.out = out;
+        }
+
+        void write(int row, String status, String error, String email) {
+            ("created".equals(status) ? created : failed).incrementAndGet();
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("row", row);
+            line.put("status", status);
+            if (email != null) line.put("email", email);
+            if (error != null) line.put("error", error);
+            emit(line);
+        }
+
+        void summary(int rows) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("summary", true);
+            line.put("rows", rows);
+            line.put("created", created.get());
+            line.put("failed", failed.get());
+            emit(line);
+        }
+
+        private synchronized void emit(Map<String, Object> line) {
+            if (closed) return;
+            try {
+                out.write(mapper.writeValueAsString(line));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                // The client disconnected; stop reading further rows.
+                closed = true;
+                logger.warn("Customer import client went away: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.payabli.example;
+
+import io.github.payabli.api.resources.query.requests.ListCustomersRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * One page of the customer list: the entrypoint, the page window and the
+ * column filters. Doubles as the list cache key, so each page and filter
+ * combination is cached on its own.
+ */
+final class CustomerListQuery {
+
+    /** Columns that can be filtered on; each maps to a "contains" filter upstream. */
+    static final List<String> FILTER_FIELDS = Arrays.asList("firstname", "lastname", "email", "city", "state", "zip");
+
+    final String entryPoint;
+    final int page;
+    final int pageSize;
+    final Map<String, String> filters;
+
+    CustomerListQuery(String entryPoint, int page, int pageSize, Map<String, String> filters) {
+        this.entryPoint = entryPoint;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.filters = Collections.unmodifiableMap(new TreeMap<>(filters));
+    }
+
+    /**
+     * Reads {@code page}, {@code limit} and the filter fields from request
+     * parameters; blank filters are ignored and the page size is capped.
+     * The page is capped too, so the first record of this page and of the
+     * next one still fits in an {@code int}.
+     */
+    static CustomerListQuery from(String entryPoint, Function<String, String> param, int defaultPageSize, int maxPageSize) {
+        int pageSize = Math.min(maxPageSize, Math.max(1, parseOr(param.apply("limit"), defaultPageSize)));
+        int page = Math.min(Integer.MAX_VALUE / pageSize - 1, Math.max(0, parseOr(param.apply("page"), 0)));
+        Map<String, String> filters = new TreeMap<>();
+        for (String field : FILTER_FIELDS) {
+            String value = param.apply(field);
+            if (value != null && !value.isBlank()) filters.put(field, value.trim());
+        }
+        return new CustomerListQuery(entryPoint, page, pageSize, filters);
+    }
+
+    private static int parseOr(String value, int fallback) {
+        try {
+            return value == null ? fallback : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /** The query for the page after this one. */
+    CustomerListQuery next() {
+        return new CustomerListQuery(entryPoint, page + 1, pageSize, filters);
+    }
+
+    /** Request that fetches just this page, with the filters applied upstream. */
+    ListCustomersRequest toRequest() {
+        Map<String, Optional<String>> parameters = new TreeMap<>();
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            parameters.put(filter.getKey() + "(ct)", Optional.of(filter.getValue()));
+        }
+        return ListCustomersRequest.builder()
+                .fromRecord(page * pageSize)
+                .limitRecord(pageSize)
+                .parameters(parameters)
+                .build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CustomerListQuery)) return false;
+        CustomerListQuery other = (CustomerListQuery) o;
+        return page == other.page && pageSize == other.pageSize
+                && entryPoint.equals(other.entryPoint) && filters.equals(other.filters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entryPoint, page, pageSize, filters);
+    }
+
+    @Override
+    public String toString() {
+        return entryPoint + " page " + page + " x" + pageSize + (filters.isEmpty() ? "" : " " + filters);
+    }
+}
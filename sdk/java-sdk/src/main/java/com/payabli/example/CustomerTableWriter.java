@@ -0,0 +1,115 @@
+package com.payabli.example;
+
+import io.github.payabli.api.types.CustomerQueryRecords;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes one page of the customer table straight to the response as UTF-8,
+ * row by row, so nothing larger than a row is ever built in memory.
+ *
+ * <p>The first page carries the table and its header; later pages are bare
+ * rows. A full page ends with a sentinel row that htmx fetches when it
+ * scrolls into view and replaces with the next page.
+ */
+final class CustomerTableWriter {
+
+    private static final byte[] TABLE_START = Utf8HtmlWriter.ascii("<table class=\"striped\">"
+            + "<thead>"
+            + "<tr>"
+            + "<th>First Name</th>"
+            + "<th>Last Name</th>"
+            + "<th>Email</th>"
+            + "<th>Address</th>"
+            + "<th>City</th>"
+            + "<th>State</th>"
+            + "<th>Zip</th>"
+            + "<th>Time Zone</th>"
+            + "<th></th>"
+            + "</tr>"
+            + "</thead>"
+            + "<tbody>");
+    private static final byte[] NO_CUSTOMERS = Utf8HtmlWriter.ascii("<tr>"
+            + "<td colspan=\"9\" style=\"text-align: center; color: #666;\">"
+            + "No customers found. Create a customer to get started!"
+            + "</td>"
+            + "</tr>");
+    private static final byte[] NO_MATCHES = Utf8HtmlWriter.ascii("<tr>"
+            + "<td colspan=\"9\" style=\"text-align: center; color: #666;\">"
+            + "No customers match these filters."
+            + "</td>"
+            + "</tr>");
+    private static final byte[] SENTINEL_START = Utf8HtmlWriter.ascii("<tr hx-get=\"");
+    private static final byte[] SENTINEL_END = Utf8HtmlWriter.ascii("\" hx-trigger=\"revealed\" hx-swap=\"outerHTML\">"
+            + "<td colspan=\"9\" style=\"text-align: center; color: #666;\" aria-busy=\"true\">Loading more customers...</td>"
+            + "</tr>");
+    private static final byte[] TABLE_END = Utf8HtmlWriter.ascii("</tbody></table>");
+
+    private static final byte[] ROW_START = Utf8HtmlWriter.ascii("<tr><td>");
+    private static final byte[] NEXT_CELL = Utf8HtmlWriter.ascii("</td><td>");
+    private static final byte[] DELETE_START = Utf8HtmlWriter.ascii("</td><td>"
+            + "<button id=\"delete\" class=\"outline\""
+            + " hx-delete=\"/api/delete/");
+    private static final byte[] DELETE_END = Utf8HtmlWriter.ascii("\""
+            + " hx-swap=\"innerHTML\""
+            + " hx-target=\"closest tr\""
+            + " hx-on=\"htmx:beforeRequest: this.setAttribute('aria-busy', 'true'), htmx:afterRequest: this.removeAttribute('aria-busy')\">"
+            + "X"
+            + "</button>"
+            + "</td>"
+            + "</tr>");
+
+    private CustomerTableWriter() {}
+
+    static void write(Utf8HtmlWriter out, CustomerListQuery query, List<CustomerQueryRecords> records) throws IOException {
+        if (query.page == 0) {
+            out.raw(TABLE_START);
+            if (records.isEmpty()) {
+                out.raw(query.filters.isEmpty() ? NO_CUSTOMERS : NO_MATCHES);
+            }
+        }
+
+        for (CustomerQueryRecords record : records) {
+            writeRow(out, record);
+        }
+
+        // A short page is the last one; a full page may have more behind it.
+        if (records.size() >= query.pageSize) {
+            out.raw(SENTINEL_START).text(pageUrl(query.next())).raw(SENTINEL_END);
+        }
+
+        if (query.page == 0) {
+            out.raw(TABLE_END);
+        }
+    }
+
+    /** One {@code <tr>}; static markup is copied from constants, so only the field values cost anything. */
+    static void writeRow(Utf8HtmlWriter out, CustomerQueryRecords record) throws IOException {
+        out.raw(ROW_START).text(record.getFirstname().orElse(""))
+           .raw(NEXT_CELL).text(record.getLastname().orElse(""))
+           .raw(NEXT_CELL).text(record.getEmail().orElse(""))
+           .raw(NEXT_CELL).text(record.getAddress().orElse(""))
+           .raw(NEXT_CELL).text(record.getCity().orElse(""))
+           .raw(NEXT_CELL).text(record.getState().orElse(""))
+           .raw(NEXT_CELL).text(record.getZip().orElse(""))
+           .raw(NEXT_CELL);
+        if (record.getTimeZone().isPresent()) out.number(record.getTimeZone().get());
+        out.raw(DELETE_START);
+        if (record.getCustomerId().isPresent()) out.number(record.getCustomerId().get());
+        out.raw(DELETE_END);
+    }
+
+    private static String pageUrl(CustomerListQuery query) {
+        StringBuilder url = new StringBuilder("/api/list?page=").append(query.page)
+                .append("&limit=").append(query.pageSize);
+        for (Map.Entry<String, String> filter : query.filters.entrySet()) {
+            url.append('&').append(filter.getKey()).append('=')
+               .append(URLEncoder.encode(filter.getValue(), StandardCharsets.UTF_8));
+        }
+        return url.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.payabli.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Single-pass HTML escaping for text and attribute values.
+ *
+ * <p>Escapes {@code & < > " '}. Clean input is returned or appended as-is;
+ * otherwise the runs between special characters are copied in one go, so
+ * the cost is one scan of the input and no intermediate strings.
+ */
+final class HtmlEscaper {
+
+    private static final String[] REPLACEMENTS = new String[128];
+    static {
+        REPLACEMENTS['&'] = "&amp;";
+        REPLACEMENTS['<'] = "&lt;";
+        REPLACEMENTS['>'] = "&gt;";
+        REPLACEMENTS['"'] = "&quot;";
+        REPLACEMENTS['\''] = "&#x27;";
+    }
+
+    private HtmlEscaper() {}
+
+    /** The entity for {@code c}, or {@code null} if it needs no escaping. */
+    static String replacement(char c) {
+        return c < REPLACEMENTS.length ? REPLACEMENTS[c] : null;
+    }
+
+    /** {@code input} escaped; the same instance when there is nothing to escape. */
+    static String escape(String input) {
+        if (input == null) return "";
+        int first = firstSpecial(input);
+        if (first < 0) return input;
+        StringBuilder out = new StringBuilder(input.length() + 16);
+        try {
+            escape(input, first, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return out.toString();
+    }
+
+    /** Appends {@code input}, escaped, to {@code out}; {@code null} appends nothing. */
+    static void escape(CharSequence input, Appendable out) throws IOException {
+        if (input == null) return;
+        int first = firstSpecial(input);
+        if (first < 0) {
+            out.append(input);
+        } else {
+            escape(input, first, out);
+        }
+    }
+
+    private static void escape(CharSequence input, int first, Appendable out) throws IOException {
+        int start = 0;
+        for (int i = first; i < input.length(); i++) {
+            String replacement = replacement(input.charAt(i));
+            if (replacement != null) {
+                out.append(input, start, i).append(replacement);
+                start = i + 1;
+            }
+        }
+        out.append(input, start, input.length());
+    }
+
+    private static int firstSpecial(CharSequence input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (replacement(input.charAt(i)) != null) return i;
+        }
+        return -1;
+    }
+}
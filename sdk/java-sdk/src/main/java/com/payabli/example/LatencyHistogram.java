@@ -0,0 +1,84 @@
+package com.payabli.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets
+ * (1us, 2us, 4us ... ~1.2h). Percentiles are reported as the upper edge of
+ * the bucket they fall in, so they overstate by at most 2x, which is plenty
+ * to spot a slow stage.
+ *
+ * <p>{@link #appendPrometheus} writes it in the Prometheus text format, in
+ * seconds, with every other bucket edge (1ms, 4ms, 16ms ... 67s) as an
+ * {@code le} bound.
+ */
+final class LatencyHistogram {
+
+    private static final int BUCKETS = 33;
+    /** Bucket indexes reported as {@code le} bounds: 2^10us (~1ms) to 2^26us (~67s). */
+    private static final int FIRST_REPORTED = 10;
+    private static final int LAST_REPORTED = 26;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+
+    void record(long nanos) {
+        long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros - 1));
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sumMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    long maxMicros() {
+        return maxMicros.get();
+    }
+
+    long sumMicros() {
+        return sumMicros.get();
+    }
+
+    /** Upper bound, in microseconds, of the {@code quantile} (0..1) latency. */
+    long percentileMicros(double quantile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(1L << i, maxMicros.get());
+        }
+        return maxMicros.get();
+    }
+
+    /**
+     * Appends {@code name_bucket}, {@code name_sum} and {@code name_count}
+     * lines; {@code labels} is either empty or {@code key="value",...}.
+     */
+    void appendPrometheus(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "{" : "{" + labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts.get(i);
+            if (i >= FIRST_REPORTED && i <= LAST_REPORTED && (i - FIRST_REPORTED) % 2 == 0) {
+                out.append(name).append("_bucket").append(prefix).append("le=\"")
+                   .append((1L << i) / 1e6).append("\"} ").append(cumulative).append('\n');
+            }
+        }
+        // Summed from the buckets so +Inf always matches them mid-update.
+        long total = cumulative;
+        out.append(name).append("_bucket").append(prefix).append("le=\"+Inf\"} ").append(total).append('\n');
+        String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+        out.append(name).append("_sum").append(suffix).append(sumMicros.get() / 1e6).append('\n');
+        out.append(name).append("_count").append(suffix).append(total).append('\n');
+    }
+}
@@ -0,0 +1,45 @@
+package com.payabli.example;
+
+import java.util.function.Supplier;
+
+/**
+ * A value built on first use instead of at startup, at most once even when
+ * several request threads ask for it together.
+ */
+final class Lazy<T> implements Supplier<T> {
+
+    private Supplier<T> factory;
+    private volatile T value;
+
+    private Lazy(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /** Builds the value on the first {@link #get}, or immediately unless {@code deferred}. */
+    static <T> Lazy<T> of(Supplier<T> factory, boolean deferred) {
+        Lazy<T> lazy = new Lazy<>(factory);
+        if (!deferred) lazy.get();
+        return lazy;
+    }
+
+    @Override
+    public T get() {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = factory.get();
+                    value = result;
+                    factory = null;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** True once the value exists; reading a gauge should not be what builds it. */
+    boolean isCreated() {
+        return value != null;
+    }
+}
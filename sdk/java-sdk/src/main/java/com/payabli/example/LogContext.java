@@ -0,0 +1,67 @@
+package com.payabli.example;
+
+import io.javalin.http.Context;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Correlation IDs for log lines. Each request gets a {@code requestId} in
+ * the MDC, taken from its {@code X-Request-Id} header when that looks sane
+ * and generated otherwise, and echoed back in the response header.
+ *
+ * <p>The MDC is per thread, so work handed to the payment pool or finished
+ * in a future's callback would lose it; {@link #callWith} carries a copy
+ * captured on the request thread across to wherever the work runs.
+ */
+final class LogContext {
+
+    static final String REQUEST_ID = "requestId";
+    static final String HEADER = "X-Request-Id";
+
+    // Anything else, including overly long IDs, is replaced rather than logged.
+    private static final Pattern SAFE_ID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+
+    private LogContext() {
+    }
+
+    /** Puts this request's ID in the MDC and the response header. */
+    static void begin(Context ctx) {
+        String id = ctx.header(HEADER);
+        if (id == null || !SAFE_ID.matcher(id).matches()) {
+            id = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+        }
+        // An async request's after-handler clears the thread that finished
+        // it, not this one, so start from an empty MDC.
+        MDC.clear();
+        MDC.put(REQUEST_ID, id);
+        ctx.header(HEADER, id);
+    }
+
+    /** Clears the request thread's MDC once the handler has returned. */
+    static void end() {
+        MDC.clear();
+    }
+
+    /** Runs {@code body} with {@code context} as the MDC, then restores the caller's own. */
+    static <T> T callWith(Map<String, String> context, Supplier<T> body) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        setContext(context);
+        try {
+            return body.get();
+        } finally {
+            setContext(previous);
+        }
+    }
+
+    private static void setContext(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
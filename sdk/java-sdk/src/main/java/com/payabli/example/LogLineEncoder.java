@@ -0,0 +1,143 @@
+package com.payabli.example;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import org.slf4j.event.KeyValuePair;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes each logging event as one line, with its MDC entries and SLF4J
+ * key-value pairs ({@code logger.atInfo().addKeyValue(...)}) as fields.
+ *
+ * <p>{@code json} (the default) writes one JSON object per line:
+ * <pre>
+ * {"ts":"2024-05-01T09:00:00.123Z","level":"INFO","logger":"com.payabli.example.PayabliExampleApp",
+ *  "thread":"payment-io-3","msg":"Payment processed","requestId":"5f1c0a9e2b7d4e61","stage":"getpaidv2"}
+ * </pre>
+ * {@code text} writes the same fields as a readable line, for a terminal.
+ * Numbers and booleans among the key-value pairs stay unquoted in JSON; a
+ * stack trace goes in {@code stack}.
+ */
+public final class LogLineEncoder extends EncoderBase<ILoggingEvent> {
+
+    private boolean json = true;
+
+    /** {@code json} or {@code text}. */
+    public void setFormat(String format) {
+        if (!"json".equalsIgnoreCase(format) && !"text".equalsIgnoreCase(format)) {
+            addWarn("Unknown log format '" + format + "', using json");
+        }
+        this.json = !"text".equalsIgnoreCase(format);
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder out = new StringBuilder(256);
+        if (json) {
+            json(event, out);
+        } else {
+            text(event, out);
+        }
+        return out.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void json(ILoggingEvent event, StringBuilder out) {
+        out.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.getTimeStamp()))
+           .append("\",\"level\":\"").append(event.getLevel())
+           .append("\",\"logger\":");
+        quote(event.getLoggerName(), out);
+        out.append(",\"thread\":");
+        quote(event.getThreadName(), out);
+        out.append(",\"msg\":");
+        quote(event.getFormattedMessage(), out);
+        for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+            out.append(',');
+            quote(entry.getKey(), out);
+            out.append(':');
+            quote(entry.getValue(), out);
+        }
+        List<KeyValuePair> pairs = event.getKeyValuePairs();
+        if (pairs != null) {
+            for (KeyValuePair pair : pairs) {
+                out.append(',');
+                quote(pair.key, out);
+                out.append(':');
+                if (pair.value instanceof Boolean
+                        || pair.value instanceof Number && Double.isFinite(((Number) pair.value).doubleValue())) {
+                    out.append(pair.value);
+                } else {
+                    quote(String.valueOf(pair.value), out);
+                }
+            }
+        }
+        IThrowableProxy error = event.getThrowableProxy();
+        if (error != null) {
+            out.append(",\"stack\":");
+            quote(ThrowableProxyUtil.asString(error).stripTrailing(), out);
+        }
+        out.append('}');
+    }
+
+    private static void text(ILoggingEvent event, StringBuilder out) {
+        String logger = event.getLoggerName();
+        out.append(Instant.ofEpochMilli(event.getTimeStamp())).append(' ')
+           .append(String.format("%-5s", event.getLevel())).append(" [").append(event.getThreadName()).append("] ")
+           .append(logger, logger.lastIndexOf('.') + 1, logger.length()).append(" - ")
+           .append(event.getFormattedMessage());
+        for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+            out.append(' ').append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        List<KeyValuePair> pairs = event.getKeyValuePairs();
+        if (pairs != null) {
+            for (KeyValuePair pair : pairs) {
+                out.append(' ').append(pair.key).append('=').append(pair.value);
+            }
+        }
+        IThrowableProxy error = event.getThrowableProxy();
+        if (error != null) {
+            out.append('\n').append(ThrowableProxyUtil.asString(error).stripTrailing());
+        }
+    }
+
+    /** Appends {@code value} as a JSON string, escaping quotes, backslashes and control characters. */
+    static void quote(String value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':  out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xf, 16));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -3,6 +3,7 @@ package com.payabli.example;
 import io.github.cdimascio.dotenv.Dotenv;
 import io.github.payabli.api.PayabliApiClient;
 import io.github.payabli.api.PayabliApiClientBuilder;
+import io.github.payabli.api.core.Environment;
 import io.github.payabli.api.resources.customer.requests.AddCustomerRequest;
 import io.github.payabli.api.resources.tokenstorage.requests.AddMethodRequest;
 import io.github.payabli.api.resources.moneyin.requests.RequestPaymentV2;
@@ -11,30 +12,37 @@ import io.javalin.Javalin;
 import io.javalin.http.Context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.slf4j.MDC;
+import org.thymeleaf.context.IContext;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
 
 public class PayabliExampleApp {
     private static final Logger logger = LoggerFactory.getLogger(PayabliExampleApp.class);
-    private static PayabliApiClient payabliClient;
+    private static Lazy<PayabliApiClient> payabliClient;
+    private static Lazy<ApiHttpClient> apiHttp;
     private static String entryPoint;
     private static String publicToken;
-    private static TemplateEngine templateEngine;
-
-    static {
-        // Initialize Thymeleaf template engine
-        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
-        templateResolver.setTemplateMode("HTML");
-        templateResolver.setPrefix("templates/");
-        templateResolver.setSuffix(".html");
-        templateResolver.setCharacterEncoding("UTF-8");
-        templateResolver.setCacheable(false); // For development
-        
-        templateEngine = new TemplateEngine();
-        templateEngine.setTemplateResolver(templateResolver);
-    }
+    private static TemplatePages templatePages;
+    private static CustomerImporter customerImporter;
+    private static ReadThroughCache<CustomerListQuery, QueryCustomerResponse> customerListCache;
+    private static int listPageSize;
+    private static final int MAX_LIST_PAGE_SIZE = 500;
+    private static PipelineStage<String, String> tokenStage;
+    private static PipelineStage<String, Object> chargeStage;
+    private static final CallMetrics httpMetrics = new CallMetrics("http_server_requests", "route");
+    private static final CallMetrics apiMetrics = new CallMetrics("payabli_client_requests", "operation");
 
     public static void main(String[] args) {
         // Load environment variables from .env file
@@ -47,6 +55,14 @@ public class PayabliExampleApp {
         entryPoint = dotenv.get("PAYABLI_ENTRY", System.getenv("PAYABLI_ENTRY"));
         publicToken = dotenv.get("PAYABLI_PUBLIC_TOKEN", System.getenv("PAYABLI_PUBLIC_TOKEN"));
 
+        // A class-data sharing training run never calls the API, so it needs no credentials
+        boolean training = StartupTraining.enabled();
+        if (training) {
+            apiKey = Objects.requireNonNullElse(apiKey, "training");
+            entryPoint = Objects.requireNonNullElse(entryPoint, "training");
+            publicToken = Objects.requireNonNullElse(publicToken, "training");
+        }
+
         if (apiKey == null || entryPoint == null || publicToken == null) {
             logger.error("PAYABLI_KEY, PAYABLI_ENTRY, and PAYABLI_PUBLIC_TOKEN environment variables must be set");
             logger.error("Please ensure your .env file exists and contains these variables, or set them as system environment variables");
@@ -55,100 +71,214 @@ public class PayabliExampleApp {
         
         logger.info("Successfully loaded configuration - Entry Point: {}", entryPoint);
 
-        // Initialize Payabli client
-        payabliClient = new PayabliApiClientBuilder()
-                .apiKey(apiKey)
-                .build();
+        // STARTUP_MODE=fast defers the template engine, the page renders and the
+        // SDK client to the first request that needs them
+        boolean fastStartup = "fast".equalsIgnoreCase(setting(dotenv, "STARTUP_MODE", "standard"));
+
+        // Initialize Thymeleaf: cached and pre-rendered pages unless developing templates
+        templatePages = new TemplatePages(
+                "development".equalsIgnoreCase(setting(dotenv, "TEMPLATE_MODE", "production")), fastStartup);
+
+        // One tuned OkHttp client behind the SDK, shared by every handler
+        int poolSize = Integer.parseInt(setting(dotenv, "PAYABLI_HTTP_POOL_SIZE", "16"));
+        long keepAliveSeconds = Long.parseLong(setting(dotenv, "PAYABLI_HTTP_KEEP_ALIVE_SECONDS", "300"));
+        int maxPerHost = Integer.parseInt(setting(dotenv, "PAYABLI_HTTP_MAX_PER_HOST", "32"));
+        boolean http2 = !"off".equalsIgnoreCase(setting(dotenv, "PAYABLI_HTTP2", "on"));
+        long connectTimeoutMs = Long.parseLong(setting(dotenv, "PAYABLI_HTTP_CONNECT_TIMEOUT_MS", "5000"));
+        long readTimeoutMs = Long.parseLong(setting(dotenv, "PAYABLI_HTTP_READ_TIMEOUT_MS", "30000"));
+        apiHttp = Lazy.of(() -> new ApiHttpClient(poolSize, keepAliveSeconds, maxPerHost, http2,
+                connectTimeoutMs, readTimeoutMs), fastStartup);
+
+        // Initialize Payabli client; PAYABLI_API_URL points it at a local stand-in for load tests
+        String key = apiKey;
+        String apiUrl = setting(dotenv, "PAYABLI_API_URL", "");
+        if (!apiUrl.isEmpty()) {
+            logger.info("Using Payabli API at {}", apiUrl);
+        }
+        payabliClient = Lazy.of(() -> {
+            PayabliApiClientBuilder clientBuilder = new PayabliApiClientBuilder()
+                    .apiKey(key)
+                    .httpClient(apiHttp.get().client());
+            if (!apiUrl.isEmpty()) {
+                clientBuilder.environment(Environment.custom(apiUrl));
+            }
+            return clientBuilder.build();
+        }, fastStartup);
+
+        // Cache each page of the customer list; writes below invalidate every page
+        listPageSize = Integer.parseInt(setting(dotenv, "LIST_PAGE_SIZE", "50"));
+        ExecutorService cacheRefresher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "customer-list-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        customerListCache = new ReadThroughCache<>(
+                query -> apiMetrics.time("listCustomers",
+                        () -> payabliClient.get().query().listCustomers(query.entryPoint, query.toRequest())),
+                Long.parseLong(setting(dotenv, "LIST_CACHE_TTL_SECONDS", "30")),
+                Long.parseLong(setting(dotenv, "LIST_CACHE_STALE_SECONDS", "300")),
+                cacheRefresher,
+                Integer.parseInt(setting(dotenv, "LIST_CACHE_MAX_ENTRIES", "1000")));
+
+        // Bulk imports share one client-side rate limit toward the API
+        customerImporter = new CustomerImporter(
+                row -> {
+                    AddCustomerRequest request = AddCustomerRequest.builder()
+                            .body(customerData(row::get))
+                            .forceCustomerCreation(true)
+                            .build();
+                    apiMetrics.time("addCustomer", () -> payabliClient.get().customer().addCustomer(entryPoint, request));
+                    invalidateCustomerList();
+                },
+                new RateLimiter(Double.parseDouble(setting(dotenv, "IMPORT_RATE_PER_SECOND", "20"))),
+                Integer.parseInt(setting(dotenv, "IMPORT_CONCURRENCY", "8")));
+
+        // Payment steps run on their own bounded pool, each with a timeout,
+        // retries and a circuit breaker. Charges are not retried by default:
+        // a timed-out getpaidv2 may still have gone through.
+        boolean asyncPayments = !"sync".equalsIgnoreCase(setting(dotenv, "PAYMENT_MODE", "async"));
+        int paymentThreads = Integer.parseInt(setting(dotenv, "PAYMENT_THREADS", "16"));
+        AtomicInteger paymentThreadIds = new AtomicInteger();
+        ThreadPoolExecutor paymentIo = new ThreadPoolExecutor(paymentThreads, paymentThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Integer.parseInt(setting(dotenv, "PAYMENT_QUEUE", "64"))),
+                r -> {
+                    Thread t = new Thread(r, "payment-io-" + paymentThreadIds.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        int breakerFailures = Integer.parseInt(setting(dotenv, "PAYMENT_BREAKER_FAILURES", "5"));
+        long breakerOpenMs = Long.parseLong(setting(dotenv, "PAYMENT_BREAKER_OPEN_MS", "30000"));
+        long backoffMs = Long.parseLong(setting(dotenv, "PAYMENT_RETRY_BACKOFF_MS", "200"));
+        tokenStage = new PipelineStage<>("addMethod", PayabliExampleApp::storePaymentMethod, paymentIo,
+                Long.parseLong(setting(dotenv, "PAYMENT_TOKEN_TIMEOUT_MS", "10000")),
+                Integer.parseInt(setting(dotenv, "PAYMENT_TOKEN_RETRIES", "1")), backoffMs,
+                new CircuitBreaker(breakerFailures, breakerOpenMs));
+        chargeStage = new PipelineStage<>("getpaidv2", PayabliExampleApp::chargeStoredMethod, paymentIo,
+                Long.parseLong(setting(dotenv, "PAYMENT_CHARGE_TIMEOUT_MS", "20000")),
+                Integer.parseInt(setting(dotenv, "PAYMENT_CHARGE_RETRIES", "0")), backoffMs,
+                new CircuitBreaker(breakerFailures, breakerOpenMs));
 
         // Create and configure Javalin app
         Javalin app = Javalin.create(config -> {
             config.staticFiles.add("static");
+            // Called once per request, after any async result has been written
+            config.requestLogger.http((ctx, executionTimeMs) -> {
+                String path = ctx.endpointHandlerPath();
+                httpMetrics.record(ctx.method() + " " + (path.isEmpty() ? "unmatched" : path),
+                        (long) (executionTimeMs * 1_000_000), ctx.statusCode() >= 500);
+            });
         });
 
+        // Every log line written while handling a request carries its requestId
+        app.before(LogContext::begin);
+        app.after(ctx -> LogContext.end());
+
         // Routes
-        app.get("/", PayabliExampleApp::renderCreateCustomerPage);
-        app.get("/list", PayabliExampleApp::renderListCustomersPage);
-        app.get("/transaction", PayabliExampleApp::renderTransactionPage);
-        app.get("/debug", PayabliExampleApp::renderDebugPage);
+        app.get("/", templatePages.page("create-customer", PayabliExampleApp::createCustomerPage));
+        app.get("/list", templatePages.page("list-customers", PayabliExampleApp::listCustomersPage));
+        app.get("/transaction", templatePages.page("transaction", PayabliExampleApp::transactionPage));
+        app.get("/debug", templatePages.page("debug", PayabliExampleApp::debugPage));
         app.post("/api/create", PayabliExampleApp::createCustomer);
+        app.post("/api/import", PayabliExampleApp::importCustomers);
         app.get("/api/list", PayabliExampleApp::listCustomers);
         app.delete("/api/delete/{customerId}", PayabliExampleApp::deleteCustomer);
-        app.post("/api/transaction/{token}", PayabliExampleApp::processTransaction);
+        app.post("/api/transaction/{token}", asyncPayments
+                ? PayabliExampleApp::processTransactionAsync
+                : PayabliExampleApp::processTransaction);
+        StatsHandler stats = new StatsHandler()
+                .register("list_cache_hits_total", customerListCache::hits)
+                .register("list_cache_stale_hits_total", customerListCache::staleHits)
+                .register("list_cache_misses_total", customerListCache::misses)
+                .register("list_cache_coalesced_total", customerListCache::coalesced)
+                .register("list_cache_refreshes_total", customerListCache::refreshes)
+                .register("list_cache_load_failures_total", customerListCache::loadFailures)
+                .register("list_cache_invalidations_total", customerListCache::invalidations);
+        for (PipelineStage<?, ?> stage : Arrays.asList(tokenStage, chargeStage)) {
+            String prefix = "payment_" + stage.name() + "_";
+            stats.register(prefix + "count", stage.latency()::count)
+                 .register(prefix + "failures_total", stage::failures)
+                 .register(prefix + "retries_total", stage::retried)
+                 .register(prefix + "latency_p50_us", () -> stage.latency().percentileMicros(0.50))
+                 .register(prefix + "latency_p99_us", () -> stage.latency().percentileMicros(0.99))
+                 .register(prefix + "latency_max_us", stage.latency()::maxMicros)
+                 .register(prefix + "breaker_state", stage.breaker()::state)
+                 .register(prefix + "breaker_rejected_total", stage.breaker()::rejected);
+        }
+        stats.register("payment_io_active_threads", paymentIo::getActiveCount)
+             .register("payment_io_pool_threads", paymentIo::getMaximumPoolSize)
+             .register("payment_io_queue_depth", () -> paymentIo.getQueue().size())
+             .register("payment_io_queue_capacity", () -> paymentIo.getQueue().size() + paymentIo.getQueue().remainingCapacity())
+             .register("import_rows_in_flight", customerImporter::inFlight)
+             .register("payabli_http_connections_acquired_total", httpStat(ApiHttpClient::connectionsAcquired))
+             .register("payabli_http_connections_opened_total", httpStat(ApiHttpClient::connectionsOpened))
+             .register("payabli_http_http2_calls_total", httpStat(ApiHttpClient::http2Calls))
+             .register("payabli_http_host_limit_waits_total", httpStat(ApiHttpClient::hostLimitWaits))
+             .register("payabli_http_pool_connections", httpStat(ApiHttpClient::pooledConnections))
+             .register("payabli_http_pool_idle_connections", httpStat(ApiHttpClient::idleConnections))
+             .register(httpMetrics)
+             .register(apiMetrics);
+        RingBufferAppender logRing = RingBufferAppender.find("ASYNC");
+        if (logRing != null) {
+            stats.register(logRing);
+        }
+        app.get("/stats", stats);
+        app.get("/metrics", stats);
 
         // Start server
         int port = Integer.parseInt(System.getProperty("server.port", "8000"));
         app.start(port);
         
-        logger.info("Payabli SDK Example app started on http://localhost:{}", port);
+        logger.info("Payabli SDK Example app started on http://localhost:{}", app.port());
+
+        if (training) {
+            StartupTraining.run(app.port(),
+                    Arrays.asList("/", "/list", "/transaction", "/debug", "/pico-important.css", "/stats"),
+                    payabliClient);
+        }
     }
 
-    private static void renderCreateCustomerPage(Context ctx) {
-        org.thymeleaf.context.Context context = new org.thymeleaf.context.Context();
-        String html = templateEngine.process("create-customer", context);
-        ctx.html(html);
+    /** A connection gauge that reads 0 until the first API call creates the client. */
+    private static LongSupplier httpStat(ToLongFunction<ApiHttpClient> stat) {
+        return () -> apiHttp.isCreated() ? stat.applyAsLong(apiHttp.get()) : 0;
     }
 
-    private static void renderListCustomersPage(Context ctx) {
-        org.thymeleaf.context.Context context = new org.thymeleaf.context.Context();
-        String html = templateEngine.process("list-customers", context);
-        ctx.html(html);
+    /** Drops every cached page of this entrypoint's customer list after a write. */
+    private static void invalidateCustomerList() {
+        customerListCache.invalidateIf(query -> query.entryPoint.equals(entryPoint));
+    }
+
+    /** Reads a setting from .env, then the system environment, then the default. */
+    private static String setting(Dotenv dotenv, String name, String defaultValue) {
+        String value = dotenv.get(name, System.getenv(name));
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static IContext createCustomerPage() {
+        return new org.thymeleaf.context.Context();
     }
 
-    private static void renderTransactionPage(Context ctx) {
+    private static IContext listCustomersPage() {
+        return new org.thymeleaf.context.Context();
+    }
+
+    private static IContext transactionPage() {
         org.thymeleaf.context.Context context = new org.thymeleaf.context.Context();
         context.setVariable("publicToken", publicToken);
         context.setVariable("entryPoint", entryPoint);
-        String html = templateEngine.process("transaction", context);
-        ctx.html(html);
+        return context;
     }
 
-    private static void renderDebugPage(Context ctx) {
+    private static IContext debugPage() {
         org.thymeleaf.context.Context context = new org.thymeleaf.context.Context();
         context.setVariable("publicToken", publicToken);
         context.setVariable("entryPoint", entryPoint);
         context.setVariable("publicTokenDisplay", publicToken != null ? publicToken.substring(0, Math.min(20, publicToken.length())) + "..." : "null");
-        String html = templateEngine.process("debug", context);
-        ctx.html(html);
+        return context;
     }
 
     private static void createCustomer(Context ctx) {
         try {
-            // Extract form parameters
-            String firstname = ctx.formParam("firstname");
-            String lastname = ctx.formParam("lastname");
-            String email = ctx.formParam("email");
-            String timeZoneStr = ctx.formParam("timeZone");
-            String address = ctx.formParam("address");
-            String city = ctx.formParam("city");
-            String state = ctx.formParam("state");
-            String zip = ctx.formParam("zip");
-            String country = ctx.formParam("country");
-            String hvac = ctx.formParam("hvac");
-            String electrical = ctx.formParam("electrical");
-
-            // Prepare additional fields
-            Map<String, String> additionalFields = new HashMap<>();
-            if (hvac != null && !hvac.isEmpty()) {
-                additionalFields.put("hvac", hvac);
-            }
-            if (electrical != null && !electrical.isEmpty()) {
-                additionalFields.put("electrical", electrical);
-            }
-
-            // Create customer data
-            CustomerData customerData = CustomerData.builder()
-                    .firstname(firstname)
-                    .lastname(lastname)
-                    .email(email)
-                    .timeZone(Integer.parseInt(timeZoneStr))
-                    .address(address)
-                    .city(city)
-                    .state(state)
-                    .zip(zip)
-                    .country(country)
-                    .additionalFields(additionalFields.isEmpty() ? Optional.empty() : Optional.of(additionalFields))
-                    .identifierFields(Optional.of(Arrays.asList("email")))
-                    .build();
+            CustomerData customerData = customerData(ctx::formParam);
 
             // Create the request
             AddCustomerRequest request = AddCustomerRequest.builder()
@@ -157,8 +287,10 @@ public class PayabliExampleApp {
                     .build();
 
             // Call the Payabli API
-            PayabliApiResponseCustomerQuery result = payabliClient.customer().addCustomer(entryPoint, request);
+            PayabliApiResponseCustomerQuery result = apiMetrics.time("addCustomer",
+                    () -> payabliClient.get().customer().addCustomer(entryPoint, request));
             
+            invalidateCustomerList();
             logger.info("Customer created successfully: {}", result);
             
             ctx.html("<input type=\"text\" name=\"valid\" value=\"Success!\" aria-invalid=\"false\" id=\"form-result\" readonly>")
@@ -172,77 +304,84 @@ public class PayabliExampleApp {
         }
     }
 
+    /**
+     * Builds the customer body sent to {@code addCustomer} from named fields,
+     * shared by the create form and the bulk import.
+     */
+    static CustomerData customerData(Function<String, String> field) {
+        // Extract form parameters
+        String firstname = field.apply("firstname");
+        String lastname = field.apply("lastname");
+        String email = field.apply("email");
+        String timeZoneStr = field.apply("timeZone");
+        String address = field.apply("address");
+        String city = field.apply("city");
+        String state = field.apply("state");
+        String zip = field.apply("zip");
+        String country = field.apply("country");
+        String hvac = field.apply("hvac");
+        String electrical = field.apply("electrical");
+
+        // Prepare additional fields
+        Map<String, String> additionalFields = new HashMap<>();
+        if (hvac != null && !hvac.isEmpty()) {
+            additionalFields.put("hvac", hvac);
+        }
+        if (electrical != null && !electrical.isEmpty()) {
+            additionalFields.put("electrical", electrical);
+        }
+
+        // Create customer data
+        return CustomerData.builder()
+                .firstname(firstname)
+                .lastname(lastname)
+                .email(email)
+                .timeZone(Integer.parseInt(timeZoneStr))
+                .address(address)
+                .city(city)
+                .state(state)
+                .zip(zip)
+                .country(country)
+                .additionalFields(additionalFields.isEmpty() ? Optional.empty() : Optional.of(additionalFields))
+                .identifierFields(Optional.of(Arrays.asList("email")))
+                .build();
+    }
+
+    /**
+     * Bulk import: streams a CSV (with a header row) or NDJSON body of
+     * customers through {@code addCustomer} and streams back one NDJSON
+     * result line per row as it completes.
+     */
+    private static void importCustomers(Context ctx) throws Exception {
+        CustomerImporter.Format format = CustomerImporter.format(ctx.queryParam("format"), ctx.contentType());
+        ctx.status(200);
+        ctx.contentType("application/x-ndjson");
+        customerImporter.run(ctx.req().getInputStream(), format, ctx.res().getOutputStream());
+    }
+
+    /**
+     * Writes one page of the customer table. The page window and column
+     * filters are passed through to the query API, and rows are streamed to
+     * the response as they are rendered, so memory per request stays flat.
+     */
     private static void listCustomers(Context ctx) {
+        CustomerListQuery query = CustomerListQuery.from(entryPoint, ctx::queryParam, listPageSize, MAX_LIST_PAGE_SIZE);
+        QueryCustomerResponse result;
         try {
-            QueryCustomerResponse result = payabliClient.query().listCustomers(entryPoint);
-            
-            StringBuilder tableRows = new StringBuilder();
-            
-            if (result.getRecords().isPresent() && !result.getRecords().get().isEmpty()) {
-                for (CustomerQueryRecords record : result.getRecords().get()) {
-                    String firstname = record.getFirstname().orElse("");
-                    String lastname = record.getLastname().orElse("");
-                    String email = record.getEmail().orElse("");
-                    String address = record.getAddress().orElse("");
-                    String city = record.getCity().orElse("");
-                    String state = record.getState().orElse("");
-                    String zip = record.getZip().orElse("");
-                    String timeZone = record.getTimeZone().map(String::valueOf).orElse("");
-                    String customerId = record.getCustomerId().map(String::valueOf).orElse("");
-                    
-                    tableRows.append("<tr>")
-                            .append("<td>").append(escapeHtml(firstname)).append("</td>")
-                            .append("<td>").append(escapeHtml(lastname)).append("</td>")
-                            .append("<td>").append(escapeHtml(email)).append("</td>")
-                            .append("<td>").append(escapeHtml(address)).append("</td>")
-                            .append("<td>").append(escapeHtml(city)).append("</td>")
-                            .append("<td>").append(escapeHtml(state)).append("</td>")
-                            .append("<td>").append(escapeHtml(zip)).append("</td>")
-                            .append("<td>").append(escapeHtml(timeZone)).append("</td>")
-                            .append("<td>")
-                            .append("<button id=\"delete\" class=\"outline\"")
-                            .append(" hx-delete=\"/api/delete/").append(customerId).append("\"")
-                            .append(" hx-swap=\"innerHTML\"")
-                            .append(" hx-target=\"closest tr\"")
-                            .append(" hx-on=\"htmx:beforeRequest: this.setAttribute('aria-busy', 'true'), htmx:afterRequest: this.removeAttribute('aria-busy')\">")
-                            .append("X")
-                            .append("</button>")
-                            .append("</td>")
-                            .append("</tr>");
-                }
-            } else {
-                tableRows.append("<tr>")
-                        .append("<td colspan=\"9\" style=\"text-align: center; color: #666;\">")
-                        .append("No customers found. Create a customer to get started!")
-                        .append("</td>")
-                        .append("</tr>");
-            }
-            
-            String table = "<table class=\"striped\">" +
-                    "<thead>" +
-                    "<tr>" +
-                    "<th>First Name</th>" +
-                    "<th>Last Name</th>" +
-                    "<th>Email</th>" +
-                    "<th>Address</th>" +
-                    "<th>City</th>" +
-                    "<th>State</th>" +
-                    "<th>Zip</th>" +
-                    "<th>Time Zone</th>" +
-                    "<th></th>" +
-                    "</tr>" +
-                    "</thead>" +
-                    "<tbody>" +
-                    tableRows.toString() +
-                    "</tbody>" +
-                    "</table>";
-            
-            ctx.html(table);
-            
+            result = customerListCache.get(query);
         } catch (Exception e) {
             logger.error("Error listing customers: {}", e.getMessage(), e);
             ctx.html("<p>Error loading customers. Please check your API credentials and try again.</p>")
                .status(500);
+            return;
+        }
+
+        ctx.status(200);
+        ctx.contentType("text/html; charset=utf-8");
+        try (Utf8HtmlWriter out = new Utf8HtmlWriter(ctx.res().getOutputStream(), 8192)) {
+            CustomerTableWriter.write(out, query, result.getRecords().orElse(Collections.emptyList()));
+        } catch (IOException e) {
+            logger.warn("Client went away while listing customers: {}", e.getMessage());
         }
     }
 
@@ -251,7 +390,8 @@ public class PayabliExampleApp {
             String customerIdStr = ctx.pathParam("customerId");
             long customerId = Long.parseLong(customerIdStr);
             
-            payabliClient.customer().deleteCustomer((int)customerId);
+            apiMetrics.time("deleteCustomer", () -> payabliClient.get().customer().deleteCustomer((int)customerId));
+            invalidateCustomerList();
             logger.info("Customer deleted: {}", customerId);
             
             ctx.html("").status(200);
@@ -265,14 +405,8 @@ public class PayabliExampleApp {
         }
     }
 
-    private static String escapeHtml(String input) {
-        if (input == null) return "";
-        return input
-                .replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&#x27;");
+    static String escapeHtml(String input) {
+        return HtmlEscaper.escape(input);
     }
 
     private static void processTransaction(Context ctx) {
@@ -285,93 +419,125 @@ public class PayabliExampleApp {
                 return;
             }
 
-            System.out.println("\n");
-            System.out.println("========================================================================");
-            System.out.println("🚀 STARTING PAYMENT PROCESSING WITH TOKEN: " + token);
-            System.out.println("========================================================================");
-            logger.info("Converting temporary token to permanent: {}", token);
-
             // Step 1: Use token storage to convert temporary token to permanent
-            System.out.println("\n📦 STEP 1: Converting temporary token to permanent stored method...");
-            AddMethodRequest tokenRequest = AddMethodRequest.builder()
-                .body(RequestTokenStorage.builder()
-                    .customerData(PayorDataRequest.builder()
-                        .customerId(4440L) // This should be dynamic based on your needs
-                        .build())
-                    .entryPoint(entryPoint)
-                    .paymentMethod(RequestTokenStoragePaymentMethod.of(
-                        ConvertToken.builder()
-                            .method("card")
-                            .tokenId(token) // The temporary token from the embedded component
-                            .build()))
-                    .source("web")
-                    .methodDescription("Main card")
-                    .build())
-                .createAnonymous(true)
-                .temporary(false)
-                .build();
-
-            System.out.println("\n\n\n\n\n⏳ Calling TokenStorage.addMethod()...\n\n\n\n\n\n\n");
-            var tokenResult = payabliClient.tokenStorage().addMethod(tokenRequest);
-            System.out.println("\n\n\n\n\n\n\n✅ TokenStorage.addMethod() completed!\n\n\n\n\n\n\n");
-            System.out.println("📋 Token storage result: " + tokenResult);
-            logger.info("Token storage result: {}", tokenResult);
-            
-            String storedMethodId = tokenResult.getResponseData().get().getReferenceId().get();
-            if (storedMethodId == null || storedMethodId.isEmpty()) {
-                throw new RuntimeException("Failed to get stored method ID from token storage response");
+            logger.info("Converting temporary token to permanent: {}", token);
+            String storedMethodId;
+            try (MDC.MDCCloseable stage = MDC.putCloseable("stage", "addMethod")) {
+                storedMethodId = storePaymentMethod(token);
             }
-            
-            System.out.println("🎯 STORED METHOD ID: " + storedMethodId);
-            logger.info("Token stored successfully with ID: {}", storedMethodId);
 
             // Step 2: Process payment using the stored method
-            System.out.println("\n💳 STEP 2: Processing payment using stored method...");
-            RequestPaymentV2 paymentRequest = RequestPaymentV2.builder()
-                .body(TransRequestBody.builder()
-                    .paymentDetails(PaymentDetail.builder()
-                        .totalAmount(100.0) // This should be dynamic based on your needs
-                        .serviceFee(0.0)
-                        .build())
-                    .paymentMethod(PaymentMethod.of(
-                        PayMethodStoredMethod.builder()
-                            .method(PayMethodStoredMethodMethod.CARD)
-                            .storedMethodId(storedMethodId)
-                            .initiator("payor")
-                            .storedMethodUsageType("unscheduled")
-                            .build()))
-                    .customerData(PayorDataRequest.builder()
-                        .customerId(4440L)
-                        .build())
-                    .entryPoint(entryPoint)
-                    .ipaddress("255.255.255.255") // This should be dynamic based on request
-                    .build())
-                .build();
-
-            System.out.println("⏳ Calling MoneyIn.getpaidv2()...");
-            var paymentResult = payabliClient.moneyIn().getpaidv2(paymentRequest);
-            System.out.println("✅ MoneyIn.getpaidv2() completed!");
-            System.out.println("💰 Payment result: " + paymentResult);
-            logger.info("Payment processed successfully: {}", paymentResult);
-
-            System.out.println("\n========================================================================");
-            System.out.println("🎉 PAYMENT PROCESSING COMPLETED SUCCESSFULLY!");
-            System.out.println("========================================================================");
-            System.out.println("\n");
+            try (MDC.MDCCloseable stage = MDC.putCloseable("stage", "getpaidv2")) {
+                chargeStoredMethod(storedMethodId);
+            }
 
             ctx.html("<input type=\"text\" name=\"valid\" value=\"Payment processed successfully!\" aria-invalid=\"false\" readonly>")
                .status(200);
 
         } catch (Exception e) {
-            System.out.println("\n");
-            System.out.println("========================================================================");
-            System.out.println("❌ PAYMENT PROCESSING FAILED!");
-            System.out.println("🔥 ERROR: " + e.getMessage());
-            System.out.println("========================================================================");
-            System.out.println("\n");
             logger.error("Error processing transaction: {}", e.getMessage(), e);
             ctx.html("<input type=\"text\" name=\"invalid\" value=\"Error processing transaction: " + escapeHtml(e.getMessage()) + "\" aria-invalid=\"true\" readonly>")
                .status(200);
         }
     }
-}
\ No newline at end of file
+
+    /** Converts a temporary token into a permanent stored method and returns its ID. */
+    private static String storePaymentMethod(String token) {
+        AddMethodRequest tokenRequest = AddMethodRequest.builder()
+            .body(RequestTokenStorage.builder()
+                .customerData(PayorDataRequest.builder()
+                    .customerId(4440L) // This should be dynamic based on your needs
+                    .build())
+                .entryPoint(entryPoint)
+                .paymentMethod(RequestTokenStoragePaymentMethod.of(
+                    ConvertToken.builder()
+                        .method("card")
+                        .tokenId(token) // The temporary token from the embedded component
+                        .build()))
+                .source("web")
+                .methodDescription("Main card")
+                .build())
+            .createAnonymous(true)
+            .temporary(false)
+            .build();
+
+        var tokenResult = apiMetrics.time("addMethod", () -> payabliClient.get().tokenStorage().addMethod(tokenRequest));
+        logger.info("Token storage result: {}", tokenResult);
+
+        String storedMethodId = tokenResult.getResponseData().get().getReferenceId().get();
+        if (storedMethodId == null || storedMethodId.isEmpty()) {
+            throw new RuntimeException("Failed to get stored method ID from token storage response");
+        }
+        logger.info("Token stored successfully with ID: {}", storedMethodId);
+        return storedMethodId;
+    }
+
+    /** Builds the v2 Money In request that charges {@code storedMethodId} on {@code entryPoint}. */
+    static RequestPaymentV2 paymentRequest(String entryPoint, String storedMethodId) {
+        return RequestPaymentV2.builder()
+            .body(TransRequestBody.builder()
+                .paymentDetails(PaymentDetail.builder()
+                    .totalAmount(100.0) // This should be dynamic based on your needs
+                    .serviceFee(0.0)
+                    .build())
+                .paymentMethod(PaymentMethod.of(
+                    PayMethodStoredMethod.builder()
+                        .method(PayMethodStoredMethodMethod.CARD)
+                        .storedMethodId(storedMethodId)
+                        .initiator("payor")
+                        .storedMethodUsageType("unscheduled")
+                        .build()))
+                .customerData(PayorDataRequest.builder()
+                    .customerId(4440L)
+                    .build())
+                .entryPoint(entryPoint)
+                .ipaddress("255.255.255.255") // This should be dynamic based on request
+                .build())
+            .build();
+    }
+
+    /** Charges a stored method through the v2 Money In endpoint. */
+    private static Object chargeStoredMethod(String storedMethodId) {
+        RequestPaymentV2 paymentRequest = paymentRequest(entryPoint, storedMethodId);
+        var paymentResult = apiMetrics.time("getpaidv2", () -> payabliClient.get().moneyIn().getpaidv2(paymentRequest));
+        logger.info("Payment processed successfully: {}", paymentResult);
+        return paymentResult;
+    }
+
+    /**
+     * Async variant of {@link #processTransaction}: the two upstream calls
+     * run as pipeline stages on the payment I/O pool, and the Jetty thread is
+     * released as soon as the request is parsed. The request's MDC is
+     * restored around the final callback, which runs on whichever thread
+     * completed the last stage.
+     */
+    private static void processTransactionAsync(Context ctx) {
+        String token = ctx.pathParam("token");
+        if (token == null || token.trim().isEmpty()) {
+            ctx.html("<input type=\"text\" name=\"invalid\" value=\"No token provided\" aria-invalid=\"true\" readonly>")
+               .status(400);
+            return;
+        }
+
+        Map<String, String> logContext = MDC.getCopyOfContextMap();
+        logger.info("Converting temporary token to permanent: {}", token);
+        ctx.future(() -> tokenStage.apply(token)
+                .thenCompose(chargeStage::apply)
+                .handle((paymentResult, error) -> LogContext.callWith(logContext, () -> {
+                    if (error == null) {
+                        ctx.html("<input type=\"text\" name=\"valid\" value=\"Payment processed successfully!\" aria-invalid=\"false\" readonly>")
+                           .status(200);
+                    } else {
+                        Throwable cause = PipelineStage.unwrap(error);
+                        String message = PipelineStage.describe(cause);
+                        if (cause instanceof RejectedExecutionException) {
+                            message = "Too many payments in progress, try again shortly";
+                        }
+                        logger.error("Error processing transaction: {}", message, cause);
+                        ctx.html("<input type=\"text\" name=\"invalid\" value=\"Error processing transaction: " + escapeHtml(message) + "\" aria-invalid=\"true\" readonly>")
+                           .status(200);
+                    }
+                    return null;
+                })));
+    }
+}
@@ -0,0 +1,145 @@
+package com.payabli.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One step of an asynchronous pipeline around a blocking upstream call.
+ *
+ * <p>Each attempt runs on the shared I/O executor with its own timeout.
+ * Failed attempts are retried up to {@code retries} times with a doubling
+ * backoff, unless the circuit breaker has opened in the meantime. The
+ * histogram records the whole stage, retries included, for successes and
+ * failures alike.
+ *
+ * <p>The caller's MDC, plus {@code stage}, is carried onto the I/O thread
+ * for the step and any retry warning, so their log lines keep the
+ * request's correlation ID.
+ *
+ * <p>A timeout stops waiting but cannot interrupt the SDK call, which keeps
+ * its I/O thread until the HTTP client's own timeout fires.
+ */
+final class PipelineStage<I, O> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineStage.class);
+
+    /** The blocking call this stage wraps. */
+    interface Step<I, O> {
+        O call(I input) throws Exception;
+    }
+
+    /** Thrown when the stage's circuit is open and the call was not attempted. */
+    static final class CircuitOpenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        CircuitOpenException(String stage) {
+            super(stage + " is unavailable, try again shortly");
+        }
+    }
+
+    private final String name;
+    private final Step<I, O> step;
+    private final Executor executor;
+    private final long timeoutMillis;
+    private final int retries;
+    private final long backoffMillis;
+    private final CircuitBreaker breaker;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+
+    PipelineStage(String name, Step<I, O> step, Executor executor,
+                  long timeoutMillis, int retries, long backoffMillis, CircuitBreaker breaker) {
+        this.name = name;
+        this.step = step;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.retries = retries;
+        this.backoffMillis = backoffMillis;
+        this.breaker = breaker;
+    }
+
+    CompletableFuture<O> apply(I input) {
+        long start = System.nanoTime();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        context = context == null ? new HashMap<>() : new HashMap<>(context);
+        context.put("stage", name);
+        return attempt(input, 0, context).whenComplete((result, error) -> {
+            latency.record(System.nanoTime() - start);
+            if (error != null) failures.increment();
+        });
+    }
+
+    private CompletableFuture<O> attempt(I input, int attempt, Map<String, String> context) {
+        if (!breaker.allow()) {
+            return CompletableFuture.failedFuture(new CircuitOpenException(name));
+        }
+        CompletableFuture<O> call;
+        try {
+            call = CompletableFuture.supplyAsync(() -> LogContext.callWith(context, () -> {
+                try {
+                    return step.call(input);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }), executor);
+        } catch (RuntimeException rejected) {
+            // The I/O executor is full; that is load, not an upstream fault.
+            breaker.cancelTrial();
+            return CompletableFuture.failedFuture(rejected);
+        }
+        return call.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((result, error) -> {
+                    if (error == null) {
+                        breaker.onSuccess();
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    breaker.onFailure();
+                    Throwable cause = unwrap(error);
+                    if (attempt >= retries) {
+                        return CompletableFuture.<O>failedFuture(cause);
+                    }
+                    retried.increment();
+                    long delay = backoffMillis << attempt;
+                    LogContext.callWith(context, () -> {
+                        logger.warn("{} attempt {} failed ({}), retrying in {} ms", name, attempt + 1, describe(cause), delay);
+                        return null;
+                    });
+                    return CompletableFuture.supplyAsync(() -> null,
+                                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> attempt(input, attempt + 1, context));
+                })
+                .thenCompose(future -> future);
+    }
+
+    static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    static String describe(Throwable error) {
+        return error instanceof TimeoutException ? "timed out" : String.valueOf(error.getMessage());
+    }
+
+    String name() { return name; }
+
+    LatencyHistogram latency() { return latency; }
+
+    CircuitBreaker breaker() { return breaker; }
+
+    long failures() { return failures.sum(); }
+
+    long retried() { return retried.sum(); }
+}
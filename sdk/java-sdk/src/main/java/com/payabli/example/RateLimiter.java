@@ -0,0 +1,43 @@
+package com.payabli.example;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiter shared by every caller that talks to the same
+ * upstream. Permits refill continuously at {@code permitsPerSecond}; up to
+ * one second's worth may accumulate while idle, so short bursts are allowed
+ * but the long-run rate never exceeds the limit.
+ */
+final class RateLimiter {
+
+    private final double permitsPerNano;
+    private final double maxPermits;
+    private double available;
+    private long lastRefill;
+
+    /** @param permitsPerSecond sustained rate; {@code 0} or less disables limiting */
+    RateLimiter(double permitsPerSecond) {
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxPermits = Math.max(1, permitsPerSecond);
+        this.available = maxPermits;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /** Blocks until a permit is available, then takes it. */
+    void acquire() throws InterruptedException {
+        if (permitsPerNano <= 0) return;
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            available = Math.min(maxPermits, available + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+            // Take the permit now, possibly going negative; the caller then
+            // sleeps off the debt outside the lock so others can queue behind it.
+            available -= 1;
+            waitNanos = available >= 0 ? 0 : (long) (-available / permitsPerNano);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
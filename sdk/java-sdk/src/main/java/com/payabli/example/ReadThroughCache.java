@@ -0,0 +1,205 @@
+package com.payabli.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Read-through cache in front of a slow upstream query.
+ *
+ * <p>A value younger than {@code ttl} is served as is. Between {@code ttl}
+ * and {@code ttl + staleWhileRevalidate} the old value is still served while
+ * one background refresh replaces it. Past that, or when nothing is cached,
+ * the caller loads it; concurrent misses on the same key wait for that one
+ * load instead of each calling upstream.
+ *
+ * <p>{@link #invalidate} drops the key and detaches any load in flight, so a
+ * load that started before a write can never repopulate the cache with the
+ * pre-write value.
+ *
+ * <p>Past {@code maxEntries} keys, expired entries are dropped first and then
+ * arbitrary ones, so a stream of distinct keys cannot grow the map without
+ * bound.
+ */
+final class ReadThroughCache<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadThroughCache.class);
+
+    /** Fetches the current value for a key from upstream. */
+    interface Loader<K, V> {
+        V load(K key) throws Exception;
+    }
+
+    private static final class Loaded<V> {
+        final V value;
+        final long loadedAt;
+
+        Loaded(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final class Slot<V> {
+        volatile Loaded<V> loaded;
+        CompletableFuture<V> inflight; // guarded by this
+    }
+
+    private final ConcurrentHashMap<K, Slot<V>> entries = new ConcurrentHashMap<>();
+    private final Loader<K, V> loader;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final Executor refresher;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param loader                upstream query
+     * @param ttlSeconds            how long a loaded value is served without refreshing
+     * @param staleWhileRevalidateSeconds how long past the TTL a value may still be served during a refresh
+     * @param refresher             runs background refreshes
+     * @param maxEntries            number of keys kept before trimming
+     */
+    ReadThroughCache(Loader<K, V> loader, long ttlSeconds, long staleWhileRevalidateSeconds,
+                     Executor refresher, int maxEntries) {
+        this.loader = loader;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.staleNanos = TimeUnit.SECONDS.toNanos(staleWhileRevalidateSeconds);
+        this.refresher = refresher;
+        this.maxEntries = maxEntries;
+    }
+
+    V get(K key) throws Exception {
+        Slot<V> slot = entries.get(key);
+        if (slot == null) {
+            if (entries.size() >= maxEntries) trim();
+            slot = entries.computeIfAbsent(key, k -> new Slot<>());
+        }
+        Loaded<V> loaded = slot.loaded;
+        if (loaded != null) {
+            long age = System.nanoTime() - loaded.loadedAt;
+            if (age < ttlNanos) {
+                hits.increment();
+                return loaded.value;
+            }
+            if (age < ttlNanos + staleNanos) {
+                staleHits.increment();
+                refresh(key, slot);
+                return loaded.value;
+            }
+        }
+        misses.increment();
+        return await(load(key, slot, null));
+    }
+
+    /** Drops the cached value for {@code key}; the next read goes upstream. */
+    void invalidate(K key) {
+        if (entries.remove(key) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /** Drops every cached key matching {@code predicate}, such as all pages of one list. */
+    void invalidateIf(Predicate<K> predicate) {
+        for (K key : entries.keySet()) {
+            if (predicate.test(key)) invalidate(key);
+        }
+    }
+
+    private void trim() {
+        long now = System.nanoTime();
+        entries.values().removeIf(slot -> {
+            Loaded<V> loaded = slot.loaded;
+            return loaded != null && now - loaded.loadedAt >= ttlNanos + staleNanos;
+        });
+        for (K key : entries.keySet()) {
+            if (entries.size() < maxEntries) break;
+            entries.remove(key);
+        }
+    }
+
+    private void refresh(K key, Slot<V> slot) {
+        load(key, slot, refresher).whenComplete((value, error) -> {
+            if (error != null) {
+                logger.warn("Background refresh for {} failed, serving stale value: {}", key, error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Joins the load already in flight for {@code slot}, or starts one: on
+     * {@code executor} when given, otherwise on the calling thread.
+     */
+    private CompletableFuture<V> load(K key, Slot<V> slot, Executor executor) {
+        CompletableFuture<V> future;
+        synchronized (slot) {
+            if (slot.inflight != null) {
+                coalesced.increment();
+                return slot.inflight;
+            }
+            future = slot.inflight = new CompletableFuture<>();
+        }
+        if (executor != null) {
+            refreshes.increment();
+            executor.execute(() -> runLoad(key, slot, future));
+        } else {
+            runLoad(key, slot, future);
+        }
+        return future;
+    }
+
+    private void runLoad(K key, Slot<V> slot, CompletableFuture<V> future) {
+        try {
+            V value = loader.load(key);
+            // An invalidated slot is no longer in the map, so this write is dropped with it.
+            slot.loaded = new Loaded<>(value, System.nanoTime());
+            future.complete(value);
+        } catch (Exception e) {
+            loadFailures.increment();
+            future.completeExceptionally(e);
+        } finally {
+            synchronized (slot) {
+                slot.inflight = null;
+            }
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw e;
+        }
+    }
+
+    long hits() { return hits.sum(); }
+
+    long staleHits() { return staleHits.sum(); }
+
+    long misses() { return misses.sum(); }
+
+    /** Misses and refreshes that joined a load already in flight. */
+    long coalesced() { return coalesced.sum(); }
+
+    long refreshes() { return refreshes.sum(); }
+
+    long loadFailures() { return loadFailures.sum(); }
+
+    long invalidations() { return invalidations.sum(); }
+}
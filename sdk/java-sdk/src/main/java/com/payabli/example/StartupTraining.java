@@ -0,0 +1,56 @@
+package com.payabli.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The training run behind the {@code appcds} Maven profile. Started with
+ * {@code -Dstartup.training=true}, the app builds what it would otherwise
+ * build lazily, requests a few of its own pages so the classes a real
+ * request needs get loaded, and exits; the JVM then records every loaded
+ * class for the class-data sharing archive.
+ *
+ * <p>Only local pages are requested, so a training run makes no API calls
+ * and needs no real credentials.
+ */
+final class StartupTraining {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTraining.class);
+
+    private StartupTraining() {}
+
+    static boolean enabled() {
+        return Boolean.getBoolean("startup.training");
+    }
+
+    /** Builds each of {@code warm}, GETs each path on {@code port} and exits. */
+    static void run(int port, List<String> paths, Lazy<?>... warm) {
+        int status = 0;
+        try {
+            for (Lazy<?> lazy : warm) {
+                lazy.get();
+            }
+            HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            for (String path : paths) {
+                HttpResponse<Void> response = http.send(
+                        HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                                .timeout(Duration.ofSeconds(30))
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding());
+                logger.info("Training request GET {} -> {}", path, response.statusCode());
+                if (response.statusCode() >= 500) status = 1;
+            }
+        } catch (Exception e) {
+            logger.error("Training run failed: {}", e.getMessage());
+            status = 1;
+        }
+        System.exit(status);
+    }
+}
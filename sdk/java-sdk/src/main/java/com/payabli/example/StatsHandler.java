@@ -0,0 +1,44 @@
+package com.payabli.example;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Serves {@code GET /stats} (and {@code GET /metrics}) as plain-text
+ * {@code name value} lines, one per registered counter or gauge, plus
+ * whatever multi-line sources such as histograms append. The output is the
+ * Prometheus text format, so the endpoint can be scraped as-is.
+ */
+final class StatsHandler implements Handler {
+
+    /** Appends one or more complete {@code name value} lines. */
+    interface Source {
+        void appendTo(StringBuilder out);
+    }
+
+    private final List<Source> sources = new ArrayList<>();
+
+    synchronized StatsHandler register(String name, LongSupplier value) {
+        return register(out -> out.append(name).append(' ').append(value.getAsLong()).append('\n'));
+    }
+
+    synchronized StatsHandler register(Source source) {
+        sources.add(source);
+        return this;
+    }
+
+    @Override
+    public void handle(Context ctx) {
+        StringBuilder body = new StringBuilder();
+        synchronized (this) {
+            for (Source source : sources) {
+                source.appendTo(body);
+            }
+        }
+        ctx.contentType("text/plain; version=0.0.4; charset=utf-8").result(body.toString());
+    }
+}
@@ -0,0 +1,105 @@
+package com.payabli.example;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+/**
+ * Serves Thymeleaf pages in one of two modes.
+ *
+ * <p>In production mode templates are parsed once and cached, and every
+ * page is rendered at startup into a byte array with a strong ETag; its
+ * variables come from configuration that is fixed for the life of the
+ * process, so requests only copy bytes, and a matching
+ * {@code If-None-Match} gets a bodiless 304.
+ *
+ * <p>In development mode template caching is off and each request re-reads
+ * and re-renders the template, so edits show up on reload.
+ *
+ * <p>With {@code deferred} set (the fast startup mode) the template engine is
+ * not built, and no page is rendered, until the first request for a page;
+ * each page is still rendered only once. A broken template then shows up on
+ * that request instead of at startup.
+ */
+final class TemplatePages {
+
+    private final Lazy<TemplateEngine> engine;
+    private final boolean development;
+    private final boolean deferred;
+
+    TemplatePages(boolean development, boolean deferred) {
+        this.engine = Lazy.of(() -> engine(development), deferred);
+        this.development = development;
+        this.deferred = deferred;
+    }
+
+    private static TemplateEngine engine(boolean development) {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setTemplateMode("HTML");
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setCharacterEncoding("UTF-8");
+        templateResolver.setCacheable(!development);
+
+        TemplateEngine engine = new TemplateEngine();
+        engine.setTemplateResolver(templateResolver);
+        return engine;
+    }
+
+    /**
+     * Returns a handler for {@code template}. Outside development mode the
+     * page is rendered once: here, so a broken template fails at startup, or
+     * on its first request when rendering is deferred.
+     */
+    Handler page(String template, Supplier<IContext> variables) {
+        if (development) {
+            return ctx -> ctx.html(render(template, variables.get()));
+        }
+        Lazy<Rendered> page = Lazy.of(() -> new Rendered(
+                render(template, variables.get()).getBytes(StandardCharsets.UTF_8)), deferred);
+        return ctx -> serve(ctx, page.get());
+    }
+
+    String render(String template, IContext variables) {
+        return engine.get().process(template, variables);
+    }
+
+    private static void serve(Context ctx, Rendered page) {
+        ctx.header("ETag", page.etag);
+        ctx.header("Cache-Control", "no-cache");
+        if (page.etag.equals(ctx.header("If-None-Match"))) {
+            ctx.status(304);
+            return;
+        }
+        ctx.contentType("text/html; charset=utf-8").result(page.body);
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** A page rendered once, with its ETag. */
+    private static final class Rendered {
+        final byte[] body;
+        final String etag;
+
+        Rendered(byte[] body) {
+            this.body = body;
+            this.etag = etag(body);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.payabli.example;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered HTML output that encodes straight to UTF-8 bytes.
+ *
+ * <p>Markup that never changes is kept as pre-encoded {@code byte[]}
+ * constants (see {@link #ascii}) and copied in with {@link #raw(byte[])};
+ * field values go through {@link #text}, which escapes and encodes each
+ * character in the same pass. Unlike an {@code OutputStreamWriter}, nothing
+ * is allocated per write.
+ */
+final class Utf8HtmlWriter implements Closeable, Flushable {
+
+    private static final byte[][] ENTITIES = new byte[128][];
+    static {
+        for (char c = 0; c < ENTITIES.length; c++) {
+            String replacement = HtmlEscaper.replacement(c);
+            if (replacement != null) ENTITIES[c] = ascii(replacement);
+        }
+    }
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+
+    Utf8HtmlWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(64, bufferSize)];
+    }
+
+    /** Encodes a markup constant once, for use with {@link #raw(byte[])}. */
+    static byte[] ascii(String markup) {
+        return markup.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Writes pre-encoded markup as-is. */
+    Utf8HtmlWriter raw(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - count) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return this;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+        return this;
+    }
+
+    /** Writes {@code value} escaped for HTML text or a quoted attribute. */
+    Utf8HtmlWriter text(CharSequence value) throws IOException {
+        if (value == null) return this;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            // Worst case per char is an entity or a 4-byte sequence; both fit in 6.
+            if (buffer.length - count < 6) flushBuffer();
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                byte[] entity = ENTITIES[c];
+                if (entity == null) {
+                    buffer[count++] = (byte) c;
+                } else {
+                    System.arraycopy(entity, 0, buffer, count, entity.length);
+                    count += entity.length;
+                }
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xc0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                buffer[count++] = (byte) (0xf0 | (cp >> 18));
+                buffer[count++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buffer[count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buffer[count++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                buffer[count++] = '?'; // unpaired, as the JDK encoder would replace it
+            } else {
+                buffer[count++] = (byte) (0xe0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buffer[count++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return this;
+    }
+
+    /** Writes {@code value} in decimal without boxing or building a string. */
+    Utf8HtmlWriter number(long value) throws IOException {
+        if (buffer.length - count < 20) flushBuffer();
+        if (value == Long.MIN_VALUE) {
+            return raw(ascii(Long.toString(value)));
+        }
+        if (value < 0) {
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) digits++;
+        for (int i = count + digits - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += digits;
+        return this;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+}
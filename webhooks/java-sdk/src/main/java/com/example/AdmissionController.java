@@ -0,0 +1,156 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Decides whether {@code POST /webhook} takes a delivery now or asks the
+ * sender to retry later.
+ *
+ * <p>Consumer pressure (a ratio where 1 means at the limit) is shed
+ * gradually: below {@link #SOFT_LIMIT} everything is admitted, above 1
+ * everything is refused with a 503, and in between a growing share is
+ * refused, so intake tapers off instead of flapping between all and nothing.
+ * {@code Retry-After} grows with the pressure and is jittered so refused
+ * senders do not all come back in the same second.
+ *
+ * <p>Each source (the client address; see {@link #source}) may have at
+ * most {@code maxPerSource} deliveries in flight; more get a 429. Bodies
+ * over {@code maxBodyBytes} get a 413.
+ */
+public final class AdmissionController {
+
+    /** Pressure at which shedding starts. */
+    static final double SOFT_LIMIT = 0.8;
+
+    private final BooleanSupplier draining;
+    private final DoubleSupplier pressure;
+    private final int maxPerSource;
+    private final int maxBodyBytes;
+    private final int retryAfterSeconds;
+    private final int maxRetryAfterSeconds;
+    private final int trustedProxyHops;
+    private final Map<String, Integer> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong shedOverload = new AtomicLong();
+    private final AtomicLong shedSource = new AtomicLong();
+    private final AtomicLong tooLarge = new AtomicLong();
+
+    /**
+     * @param draining             true once shutdown has begun; everything is refused
+     * @param pressure             consumer load, 1 = at its limit
+     * @param maxPerSource         concurrent deliveries per source, 0 for no cap
+     * @param maxBodyBytes         largest accepted body, 0 for no limit
+     * @param retryAfterSeconds    {@code Retry-After} at the soft limit
+     * @param maxRetryAfterSeconds upper bound on {@code Retry-After}
+     * @param trustedProxyHops     proxies in front of the server that append to
+     *                             {@code X-Forwarded-For}, 0 to ignore the header
+     */
+    public AdmissionController(BooleanSupplier draining, DoubleSupplier pressure, int maxPerSource,
+                               int maxBodyBytes, int retryAfterSeconds, int maxRetryAfterSeconds,
+                               int trustedProxyHops) {
+        this.draining = draining;
+        this.pressure = pressure;
+        this.maxPerSource = maxPerSource;
+        this.maxBodyBytes = maxBodyBytes;
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.maxRetryAfterSeconds = Math.max(this.retryAfterSeconds, maxRetryAfterSeconds);
+        this.trustedProxyHops = Math.max(0, trustedProxyHops);
+    }
+
+    /**
+     * Returns 0 to admit the delivery, which must then be paired with
+     * {@link #release}, or the status to refuse it with (503 or 429).
+     */
+    public int admit(String source) {
+        double load = pressure.getAsDouble();
+        if (draining.getAsBoolean() || load >= 1
+                || (load > SOFT_LIMIT && ThreadLocalRandom.current().nextDouble() < (load - SOFT_LIMIT) / (1 - SOFT_LIMIT))) {
+            shedOverload.incrementAndGet();
+            return 503;
+        }
+        if (maxPerSource > 0) {
+            // Checked and counted in one step, so a concurrent release cannot
+            // drop the entry between the two and lose this delivery's count.
+            boolean[] full = new boolean[1];
+            inFlight.compute(source, (s, count) -> {
+                int current = count == null ? 0 : count;
+                if (current >= maxPerSource) {
+                    full[0] = true;
+                    return count;
+                }
+                return current + 1;
+            });
+            if (full[0]) {
+                shedSource.incrementAndGet();
+                return 429;
+            }
+        }
+        return 0;
+    }
+
+    /** Ends a delivery admitted by {@link #admit}. */
+    public void release(String source) {
+        if (maxPerSource > 0) {
+            inFlight.computeIfPresent(source, (s, count) -> count <= 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * The source a delivery is counted against, and the address the sender
+     * allowlist checks: the socket peer, or with {@code trustedProxyHops}
+     * set, the address the outermost trusted proxy received the request from.
+     */
+    public String source(HttpExchange exchange) {
+        return source(exchange.getRequestHeaders().get("X-Forwarded-For"),
+                exchange.getRemoteAddress().getAddress().getHostAddress(), trustedProxyHops);
+    }
+
+    /**
+     * Each proxy appends the address it received the request from, so the
+     * client is {@code trustedHops} entries from the right of
+     * {@code X-Forwarded-For}. Entries further left were written by the
+     * client and are ignored. A header with fewer entries than trusted hops
+     * did not come through every proxy, so the socket peer is used instead.
+     */
+    static String source(List<String> forwarded, String peer, int trustedHops) {
+        if (trustedHops == 0 || forwarded == null) return peer;
+        List<String> hops = new ArrayList<>();
+        for (String header : forwarded) {
+            for (String hop : header.split(",")) {
+                if (!hop.isBlank()) hops.add(hop.trim());
+            }
+        }
+        return hops.size() >= trustedHops ? hops.get(hops.size() - trustedHops) : peer;
+    }
+
+    /** {@code Retry-After} for a refusal now: scaled by pressure, plus up to 100% jitter. */
+    public int retryAfterSeconds() {
+        double scale = Math.max(1, pressure.getAsDouble() / SOFT_LIMIT);
+        int base = (int) Math.min(maxRetryAfterSeconds, Math.ceil(retryAfterSeconds * scale));
+        return Math.min(maxRetryAfterSeconds, base + ThreadLocalRandom.current().nextInt(base + 1));
+    }
+
+    /** 0 when bodies are unlimited. */
+    public int maxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    void countTooLarge() {
+        tooLarge.incrementAndGet();
+    }
+
+    public long shedOverload() { return shedOverload.get(); }
+
+    public long shedSource() { return shedSource.get(); }
+
+    public long rejectedTooLarge() { return tooLarge.get(); }
+}
@@ -0,0 +1,56 @@
+package com.example;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed set of reusable request-body buffers for the webhook ingest path.
+ *
+ * <p>Buffers are heap-backed rather than direct: {@code HttpExchange} only
+ * exposes an {@code InputStream}, so a direct buffer would need a heap
+ * staging copy anyway. The journal append is the single copy into
+ * off-heap (mapped) memory. When the pool is empty a one-off buffer is
+ * handed out and dropped on release, so a burst degrades to allocation
+ * instead of blocking.
+ */
+public final class BufferPool {
+
+    private final ArrayBlockingQueue<ByteBuffer> free;
+    private final int bufferSize;
+    private final AtomicLong misses = new AtomicLong();
+
+    public BufferPool(int buffers, int bufferSize) {
+        this.free = new ArrayBlockingQueue<>(buffers);
+        this.bufferSize = bufferSize;
+        for (int i = 0; i < buffers; i++) {
+            free.offer(ByteBuffer.allocate(bufferSize));
+        }
+    }
+
+    public int bufferSize() { return bufferSize; }
+
+    /** Buffers currently available. */
+    public int available() { return free.size(); }
+
+    /** Acquisitions that found the pool empty and had to allocate. */
+    public long misses() { return misses.get(); }
+
+    /** Returns a cleared buffer of {@link #bufferSize()} bytes. */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            misses.incrementAndGet();
+            return ByteBuffer.allocate(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /** Returns a buffer obtained from {@link #acquire()}; oversized stand-ins are dropped. */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() == bufferSize) {
+            free.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * POSTs each batch to {@code endpoint} as one newline-delimited JSON body
+ * ({@code application/x-ndjson}), gzip-encoded when compression is on. Any
+ * status outside 2xx fails the write, so the batch is retried.
+ *
+ * <p>The batch's journal offsets are sent as {@code X-Webhook-Offsets:
+ * <first>-<last>} so the receiver can recognise a retried batch.
+ */
+public final class HttpBatchSink implements WebhookSink {
+
+    private final String name;
+    private final URI endpoint;
+    private final boolean gzip;
+    private final Duration timeout;
+    private final HttpClient http;
+
+    public HttpBatchSink(String name, URI endpoint, boolean gzip, Duration timeout) {
+        this.name = name;
+        this.endpoint = endpoint;
+        this.gzip = gzip;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void write(List<WebhookJournal.Entry> batch) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(batch.size() * 512);
+        try (OutputStream out = gzip ? new GZIPOutputStream(body, 8192) : body) {
+            NdjsonFileSink.writeLines(batch, out);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/x-ndjson")
+                .header("X-Webhook-Offsets", batch.get(0).offset() + "-" + batch.get(batch.size() - 1).offset())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+        if (gzip) request.header("Content-Encoding", "gzip");
+        HttpResponse<Void> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted sending to " + endpoint, e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("HTTP " + response.statusCode() + " from " + endpoint);
+        }
+    }
+
+    @Override
+    public void close() {
+        http.shutdownNow();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Samples high-rate log statements. Each statement, told apart by its
+ * message template, passes its first {@code perSecond} events in every
+ * second; after that only every {@code thereafter}-th passes, until the
+ * next second. A statement that fires rarely is never sampled, and
+ * {@code WARN} and {@code ERROR} always pass.
+ *
+ * <p>Each statement's window is a single {@code AtomicLong} (the second in
+ * the high half, the count in the low), so deciding takes one
+ * compare-and-set and no lock.
+ */
+public final class LogSampler extends Filter<ILoggingEvent> {
+
+    // Templates tracked separately; a statement that builds its message
+    // rather than using {} placeholders shares one overflow window.
+    private static final int MAX_STATEMENTS = 1024;
+
+    private final ConcurrentHashMap<String, AtomicLong> windows = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong();
+    private final LongAdder sampledOut = new LongAdder();
+    private int perSecond = 100;
+    private int thereafter = 100;
+
+    /** Events of one statement let through each second before sampling starts. */
+    public void setPerSecond(int perSecond) {
+        this.perSecond = Math.max(0, perSecond);
+    }
+
+    /** Once sampling, one event in this many is let through; {@code 0} drops the rest. */
+    public void setThereafter(int thereafter) {
+        this.thereafter = Math.max(0, thereafter);
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (event.getLevel().isGreaterOrEqual(Level.WARN)) return FilterReply.NEUTRAL;
+        String template = event.getMessage() == null ? "" : event.getMessage();
+        AtomicLong window = windows.get(template);
+        if (window == null) {
+            window = windows.size() < MAX_STATEMENTS
+                    ? windows.computeIfAbsent(template, t -> new AtomicLong())
+                    : overflow;
+        }
+        long second = event.getTimeStamp() / 1000;
+        long state;
+        long next;
+        do {
+            state = window.get();
+            next = state >>> 32 == second ? state + 1 : second << 32 | 1;
+        } while (!window.compareAndSet(state, next));
+
+        long count = next & 0xffffffffL;
+        if (count <= perSecond || thereafter > 0 && (count - perSecond) % thereafter == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.increment();
+        return FilterReply.DENY;
+    }
+
+    public long sampledOut() {
+        return sampledOut.sum();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends payloads as newline-delimited JSON to one file per UTC day,
+ * {@code webhooks-<date>.ndjson[.gz]} under {@code directory}.
+ *
+ * <p>With compression on, each batch is written as its own gzip member.
+ * Concatenated members form a valid gzip file ({@code zcat} and
+ * {@code GZIPInputStream} read straight through), and every completed batch
+ * is readable even if the process dies mid-write.
+ *
+ * <p>A batch is encoded in memory first and appended in one write. If the
+ * append fails, the file is cut back to where it was, so the retried batch
+ * never follows a partial one.
+ */
+public final class NdjsonFileSink implements WebhookSink {
+
+    private final String name;
+    private final Path directory;
+    private final boolean gzip;
+
+    private LocalDate day;
+    private FileChannel out;
+
+    public NdjsonFileSink(String name, Path directory, boolean gzip) throws IOException {
+        this.name = name;
+        this.directory = Files.createDirectories(directory);
+        this.gzip = gzip;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void write(List<WebhookJournal.Entry> batch) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(8192);
+        if (gzip) {
+            try (GZIPOutputStream member = new GZIPOutputStream(encoded, 8192)) {
+                writeLines(batch, member);
+            }
+        } else {
+            writeLines(batch, encoded);
+        }
+        FileChannel file = file();
+        long size = file.size();
+        ByteBuffer bytes = ByteBuffer.wrap(encoded.toByteArray());
+        try {
+            while (bytes.hasRemaining()) file.write(bytes);
+        } catch (IOException e) {
+            try {
+                file.truncate(size);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private FileChannel file() throws IOException {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (out == null || !today.equals(day)) {
+            close();
+            Path path = directory.resolve("webhooks-" + today + (gzip ? ".ndjson.gz" : ".ndjson"));
+            out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            day = today;
+        }
+        return out;
+    }
+
+    /**
+     * Writes each payload on its own line. JSON can only hold a raw CR or LF
+     * as whitespace between tokens, so they are turned into spaces to keep
+     * one record per line.
+     */
+    static void writeLines(List<WebhookJournal.Entry> batch, OutputStream out) throws IOException {
+        byte[] chunk = new byte[8192];
+        for (WebhookJournal.Entry entry : batch) {
+            ByteBuffer payload = entry.payload();
+            while (payload.hasRemaining()) {
+                int n = Math.min(chunk.length, payload.remaining());
+                payload.get(chunk, 0, n);
+                for (int i = 0; i < n; i++) {
+                    if (chunk[i] == '\n' || chunk[i] == '\r') chunk[i] = ' ';
+                }
+                out.write(chunk, 0, n);
+            }
+            out.write('\n');
+        }
+    }
+}
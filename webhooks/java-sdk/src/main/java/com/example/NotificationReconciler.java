@@ -0,0 +1,302 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps Payabli's webhook notifications for this server in line with what it
+ * wants, instead of adding a new {@code UNTILCANCELLED} registration on every
+ * start; each duplicate multiplies the deliveries sent here.
+ *
+ * <p>Registrations this server created are recorded in a local state file,
+ * keyed by owner, event type and target. A reconcile lists the owner's
+ * notifications and then:
+ * <ul>
+ *   <li>keeps a desired registration whose recorded ID still exists with the
+ *       same target and event type, or adopts an existing notification for
+ *       both (one left by an earlier run, say) rather than adding another;</li>
+ *   <li>adds a desired registration that has neither;</li>
+ *   <li>removes registrations it recorded that are no longer desired (an old
+ *       tunnel URL), and extra notifications for a desired target and event
+ *       type.</li>
+ * </ul>
+ * Notifications for any other target or event type are never touched, so
+ * other integrations on the same organization are safe. If the list call fails,
+ * recorded IDs are trusted, and only recorded registrations that are no
+ * longer desired are removed.
+ */
+public final class NotificationReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationReconciler.class);
+
+    /** One notification: who owns it, what it sends and where. */
+    public static final class Registration {
+        private final int ownerId;
+        private final String eventType;
+        private final String target;
+
+        public Registration(int ownerId, String eventType, String target) {
+            this.ownerId = ownerId;
+            this.eventType = eventType;
+            this.target = target;
+        }
+
+        public int ownerId()      { return ownerId; }
+        public String eventType() { return eventType; }
+        public String target()    { return target; }
+
+        String key() {
+            return ownerId + "|" + eventType + "|" + target;
+        }
+
+        static Registration parse(String key) {
+            String[] parts = key.split("\\|", 3);
+            return parts.length == 3 ? new Registration(Integer.parseInt(parts[0]), parts[1], parts[2]) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Registration r && r.ownerId == ownerId
+                    && r.eventType.equals(eventType) && r.target.equals(target);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ownerId, eventType, target);
+        }
+
+        @Override
+        public String toString() {
+            return eventType + " -> " + target + " (owner " + ownerId + ")";
+        }
+    }
+
+    /** A notification as listed by the API. */
+    public static final class Existing {
+        final String id;
+        final String eventType;
+        final String target;
+
+        public Existing(String id, String eventType, String target) {
+            this.id = id;
+            this.eventType = eventType;
+            this.target = target;
+        }
+
+        boolean sends(Registration registration) {
+            return registration.target().equals(target) && registration.eventType().equalsIgnoreCase(eventType);
+        }
+    }
+
+    /** The notification API calls the reconciler needs. */
+    public interface Remote {
+        /** Every notification the owner has, across all pages of the listing. */
+        List<Existing> list(int ownerId) throws Exception;
+
+        /** Registers {@code registration} and returns its notification ID. */
+        String add(Registration registration) throws Exception;
+
+        void remove(String notificationId) throws Exception;
+    }
+
+    private final Remote remote;
+    private final Path stateFile;
+    private final Map<String, String> recorded = new LinkedHashMap<>();
+    private volatile Set<Registration> desired = Set.of();
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+    private final AtomicLong adopted = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public NotificationReconciler(Remote remote, Path stateFile) throws IOException {
+        this.remote = remote;
+        this.stateFile = stateFile;
+        if (Files.exists(stateFile)) {
+            Properties state = new Properties();
+            try (InputStream in = Files.newInputStream(stateFile)) {
+                state.load(in);
+            }
+            for (String key : state.stringPropertyNames()) {
+                if (Registration.parse(key) != null) recorded.put(key, state.getProperty(key));
+            }
+        }
+    }
+
+    /** Replaces the desired registrations; takes effect on the next reconcile. */
+    public void desire(Set<Registration> registrations) {
+        this.desired = Set.copyOf(registrations);
+    }
+
+    /** Reconciles every {@code intervalMinutes} on a daemon thread; call {@link #reconcile} for the first run. */
+    public synchronized void schedule(long intervalMinutes) {
+        if (scheduler != null || intervalMinutes <= 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "webhook-notification-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcile, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Brings the owner's notifications in line with the desired set. Every
+     * failure is logged and counted; the rest of the plan still runs, and the
+     * next reconcile retries what failed.
+     */
+    public synchronized void reconcile() {
+        runs.incrementAndGet();
+        Set<Registration> want = desired;
+        Set<Integer> owners = new HashSet<>();
+        for (Registration registration : want) owners.add(registration.ownerId());
+        for (String key : recorded.keySet()) owners.add(Registration.parse(key).ownerId());
+
+        for (int owner : owners) {
+            List<Existing> actual;
+            try {
+                actual = remote.list(owner);
+            } catch (Exception e) {
+                errors.incrementAndGet();
+                logger.warn("Could not list notifications for owner {}; trusting local state: {}",
+                        owner, e.getMessage());
+                actual = null;
+            }
+            reconcileOwner(owner, want, actual);
+        }
+        save();
+    }
+
+    private void reconcileOwner(int owner, Set<Registration> want, List<Existing> actual) {
+        Map<String, Existing> live = new LinkedHashMap<>();
+        if (actual != null) {
+            for (Existing existing : actual) live.put(existing.id, existing);
+        }
+        Set<String> keep = new HashSet<>();
+
+        for (Registration registration : want) {
+            if (registration.ownerId() != owner) continue;
+            String id = recorded.get(registration.key());
+            if (id != null && (actual == null || (live.containsKey(id) && live.get(id).sends(registration)))) {
+                keep.add(id);
+                continue;
+            }
+            String match = null;
+            for (Existing existing : live.values()) {
+                if (existing.sends(registration) && !keep.contains(existing.id)) {
+                    match = existing.id;
+                    break;
+                }
+            }
+            if (match != null) {
+                recorded.put(registration.key(), match);
+                keep.add(match);
+                adopted.incrementAndGet();
+                logger.info("Notification {} already registered as {}", registration, match);
+                continue;
+            }
+            try {
+                String newId = remote.add(registration);
+                recorded.put(registration.key(), newId);
+                keep.add(newId);
+                added.incrementAndGet();
+                logger.info("Registered notification {} as {}", registration, newId);
+            } catch (Exception e) {
+                recorded.remove(registration.key());
+                errors.incrementAndGet();
+                logger.warn("Could not register notification {}: {}", registration, e.getMessage());
+            }
+        }
+
+        // Without a listing only recorded registrations that are no longer
+        // wanted are removed; duplicates wait for a listing.
+        // Notification ID to remove -> its state key, or null for an unrecorded duplicate.
+        Map<String, String> doomed = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : new ArrayList<>(recorded.entrySet())) {
+            Registration registration = Registration.parse(entry.getKey());
+            if (registration.ownerId() != owner || want.contains(registration)) continue;
+            if (keep.contains(entry.getValue()) || (actual != null && !live.containsKey(entry.getValue()))) {
+                recorded.remove(entry.getKey()); // still in use, or already gone
+            } else {
+                doomed.put(entry.getValue(), entry.getKey());
+            }
+        }
+        // Extra copies of a wanted registration; the same target with
+        // another event type is someone else's and is left alone.
+        for (Existing existing : live.values()) {
+            if (keep.contains(existing.id)) continue;
+            for (Registration registration : want) {
+                if (registration.ownerId() == owner && existing.sends(registration)) {
+                    doomed.putIfAbsent(existing.id, null);
+                    break;
+                }
+            }
+        }
+        for (Map.Entry<String, String> entry : doomed.entrySet()) {
+            String id = entry.getKey();
+            try {
+                remote.remove(id);
+                if (entry.getValue() != null) recorded.remove(entry.getValue());
+                removed.incrementAndGet();
+                Existing existing = live.get(id);
+                logger.info("Removed notification {} ({})", id,
+                        existing == null ? "recorded earlier" : existing.eventType + " -> " + existing.target);
+            } catch (Exception e) {
+                // A recorded one stays in the state file and is retried next time.
+                errors.incrementAndGet();
+                logger.warn("Could not remove notification {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    /** Writes the state file through a temporary file, so a crash leaves the old one intact. */
+    private void save() {
+        Properties state = new Properties();
+        state.putAll(recorded);
+        try {
+            Path parent = stateFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, stateFile.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                state.store(out, "Webhook notifications registered by this server: owner|event|target=notificationId");
+            }
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            logger.warn("Could not save notification state to {}: {}", stateFile, e.getMessage());
+        }
+    }
+
+    public long runs() { return runs.get(); }
+
+    public long added() { return added.get(); }
+
+    public long removed() { return removed.get(); }
+
+    public long adopted() { return adopted.get(); }
+
+    public long errors() { return errors.get(); }
+
+    /** Registrations currently recorded as live. */
+    public synchronized int recordedCount() { return recorded.size(); }
+}
@@ -0,0 +1,124 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoint for {@link WebhookReplayer}, guarded by a bearer token
+ * because the webhook server is usually exposed through a public tunnel.
+ *
+ * <ul>
+ *   <li>{@code POST /replay?from=<offset>} or {@code ?since=<ISO-8601 instant or epoch ms>}
+ *       starts a replay; optional {@code to=<offset>}, {@code rate=<events/s>} and
+ *       {@code parallelism=<workers>}. A {@code from} inside a record starts at the
+ *       next one. Answers 202, or 409 while one is running.</li>
+ *   <li>{@code GET /replay} returns the current replay's progress line.</li>
+ *   <li>{@code DELETE /replay} cancels it.</li>
+ * </ul>
+ */
+public final class ReplayHandler implements HttpHandler {
+
+    private final WebhookReplayer replayer;
+    private final WebhookJournal journal;
+    private final byte[] token;
+    private final int defaultParallelism;
+
+    public ReplayHandler(WebhookReplayer replayer, WebhookJournal journal, String token, int defaultParallelism) {
+        this.replayer = replayer;
+        this.journal = journal;
+        this.token = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+        this.defaultParallelism = defaultParallelism;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (authorization == null
+                    || !MessageDigest.isEqual(token, authorization.getBytes(StandardCharsets.UTF_8))) {
+                send(exchange, 401, "Missing or wrong admin token");
+                return;
+            }
+            WebhookReplayer.Replay replay = replayer.current();
+            switch (exchange.getRequestMethod()) {
+                case "GET":
+                    send(exchange, 200, replay == null ? "No replay has run" : replay.progress());
+                    break;
+                case "DELETE":
+                    if (replay != null) replay.cancel();
+                    send(exchange, 200, replay == null ? "No replay has run" : "Cancelling: " + replay.progress());
+                    break;
+                case "POST":
+                    start(exchange);
+                    break;
+                default:
+                    send(exchange, 405, "Use GET, POST or DELETE");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void start(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        long from;
+        try {
+            if (query.containsKey("since")) {
+                from = journal.offsetAt(parseInstant(query.get("since")));
+            } else if (query.containsKey("from")) {
+                from = Long.parseLong(query.get("from"));
+            } else {
+                send(exchange, 400, "Give from=<offset> or since=<instant>");
+                return;
+            }
+            long to = query.containsKey("to") ? Long.parseLong(query.get("to")) : Long.MAX_VALUE;
+            double rate = query.containsKey("rate") ? Double.parseDouble(query.get("rate")) : 0;
+            int parallelism = query.containsKey("parallelism")
+                    ? Integer.parseInt(query.get("parallelism")) : defaultParallelism;
+            WebhookReplayer.Replay replay = replayer.start(from, to, rate, parallelism);
+            send(exchange, 202, replay.progress());
+        } catch (NumberFormatException | DateTimeParseException e) {
+            send(exchange, 400, "Bad parameter: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            send(exchange, 409, e.getMessage());
+        }
+    }
+
+    private static long parseInstant(String value) {
+        return value.chars().allMatch(Character::isDigit)
+                ? Long.parseLong(value)
+                : Instant.parse(value).toEpochMilli();
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] response = (body + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(response);
+        }
+    }
+}
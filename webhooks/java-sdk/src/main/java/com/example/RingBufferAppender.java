@@ -0,0 +1,224 @@
+package com.example;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous logback appender over a fixed ring of slots. A logging thread
+ * claims a slot with one compare-and-set and publishes the event into it; a
+ * single background thread takes events in order and passes them to the
+ * attached appenders, so only that thread ever writes to stdout.
+ *
+ * <p>Logging never blocks and never takes a lock. When the ring is full the
+ * event is dropped and counted rather than stalling a request; logback's own
+ * {@code AsyncAppender} puts every event through a locked
+ * {@code ArrayBlockingQueue} instead.
+ *
+ * <p>An idle worker parks for longer and longer, up to 100 ms, so a quiet
+ * server does not wake it thousands of times a second. A logging thread
+ * that finds it parked unparks it, so the next event is not held back.
+ *
+ * <pre>
+ * &lt;appender name="ASYNC" class="com.example.RingBufferAppender"&gt;
+ *     &lt;capacity&gt;8192&lt;/capacity&gt;
+ *     &lt;appender-ref ref="STDOUT"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public final class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent>, StatsHandler.Source {
+
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private int capacity = 8192;
+    private long maxFlushMillis = 1000;
+
+    private AtomicReferenceArray<ILoggingEvent> slots;
+    private int mask;
+    // Next sequence to claim; producers race on it.
+    private final AtomicLong tail = new AtomicLong();
+    // Next sequence to take; written only by the worker.
+    private volatile long head;
+    private volatile boolean running;
+    private volatile boolean abandoned;
+    // Set while the worker is parked, or about to park, waiting for an event.
+    private volatile boolean sleeping;
+    private volatile Thread worker;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /** Slots in the ring, rounded up to a power of two. */
+    public void setCapacity(int capacity) {
+        this.capacity = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+    }
+
+    /** How long {@link #stop} waits for queued events to be written. */
+    public void setMaxFlushMillis(long maxFlushMillis) {
+        this.maxFlushMillis = maxFlushMillis;
+    }
+
+    /** The ring appender of that name on the root logger, or {@code null}. */
+    public static RingBufferAppender find(String name) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext)) return null;
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Appender<ILoggingEvent> appender = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).getAppender(name);
+        return appender instanceof RingBufferAppender ? (RingBufferAppender) appender : null;
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) return;
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No appender attached to " + getName());
+            return;
+        }
+        slots = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+        running = true;
+        abandoned = false;
+        worker = new Thread(this::drain, "log-ring-" + getName());
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) return;
+        super.stop();
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            abandoned = true;
+            long left = tail.get() - head;
+            dropped.add(left);
+            addWarn("Dropped " + left + " queued log events after waiting " + maxFlushMillis + " ms");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!running) return;
+        // Capture the MDC, message and thread name while still on the caller's thread.
+        event.prepareForDeferredProcessing();
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= slots.length()) {
+                dropped.increment();
+                return;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.set((int) sequence & mask, event);
+        enqueued.increment();
+        // The worker sets sleeping before its last look at the slot, so
+        // either it sees this event or this thread sees it sleeping.
+        if (sleeping) LockSupport.unpark(worker);
+    }
+
+    /** Worker loop: takes each event in sequence order, waiting for a claimed slot to be published. */
+    private void drain() {
+        int idle = 0;
+        long park = MIN_PARK_NANOS;
+        while (!abandoned) {
+            long sequence = head;
+            int index = (int) sequence & mask;
+            ILoggingEvent event = slots.get(index);
+            if (event != null) {
+                slots.lazySet(index, null);
+                head = sequence + 1;
+                appenders.appendLoopOnAppenders(event);
+                idle = 0;
+                park = MIN_PARK_NANOS;
+            } else if (!running && sequence == tail.get()) {
+                return;
+            } else if (++idle < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                sleeping = true;
+                if (slots.get(index) == null && running) LockSupport.parkNanos(this, park);
+                sleeping = false;
+                park = Math.min(MAX_PARK_NANOS, park * 2);
+            }
+        }
+    }
+
+    public long enqueued() { return enqueued.sum(); }
+
+    public long dropped() { return dropped.sum(); }
+
+    public long queued() { return Math.max(0, tail.get() - head); }
+
+    @Override
+    public void appendTo(StringBuilder out) {
+        long sampledOut = 0;
+        for (Filter<ILoggingEvent> filter : getCopyOfAttachedFiltersList()) {
+            if (filter instanceof LogSampler) sampledOut += ((LogSampler) filter).sampledOut();
+        }
+        out.append("log_events_total ").append(enqueued()).append('\n')
+           .append("log_dropped_total ").append(dropped()).append('\n')
+           .append("log_sampled_out_total ").append(sampledOut).append('\n')
+           .append("log_queue_depth ").append(queued()).append('\n')
+           .append("log_queue_capacity ").append(capacity).append('\n');
+    }
+
+    // ── AppenderAttachable, for <appender-ref> inside this appender ─────────
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * The training run behind the {@code appcds} Maven profile. Started with
+ * {@code -Dstartup.training=true}, the server journals into a temporary
+ * directory, takes one sample delivery and a few other requests from
+ * itself so the classes a real delivery needs get loaded, and exits; the
+ * JVM then records every loaded class for the class-data sharing archive.
+ *
+ * <p>A training run makes no API calls, registers no notification and
+ * forwards nothing to the downstream sinks, so it needs no real credentials.
+ */
+public final class StartupTraining {
+
+    private static final byte[] SAMPLE = ("{\"Event\":\"ApprovedPayment\",\"transId\":\"training-1\","
+            + "\"paypoint\":\"training\",\"totalAmount\":1.00}").getBytes(StandardCharsets.UTF_8);
+
+    private StartupTraining() {}
+
+    public static boolean enabled() {
+        return Boolean.getBoolean("startup.training");
+    }
+
+    /** Sends the training requests to the server on {@code port}. */
+    public static void exercise(int port) throws Exception {
+        String base = "http://localhost:" + port;
+        try (HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build()) {
+            send(http, HttpRequest.newBuilder(URI.create(base + "/webhook"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(SAMPLE)));
+            for (String path : new String[] {"/", "/ready", "/stats"}) {
+                send(http, HttpRequest.newBuilder(URI.create(base + path)).GET());
+            }
+        }
+    }
+
+    private static void send(HttpClient http, HttpRequest.Builder request) throws Exception {
+        HttpRequest built = request.timeout(Duration.ofSeconds(30)).build();
+        HttpResponse<Void> response = http.send(built, HttpResponse.BodyHandlers.discarding());
+        System.out.printf("Training request %s %s -> %d%n", built.method(), built.uri().getPath(), response.statusCode());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Serves {@code GET /stats} (and {@code GET /metrics}) as plain-text
+ * {@code name value} lines, one per registered counter or gauge, plus
+ * whatever multi-line sources such as histograms append. The output is the
+ * Prometheus text format, so the endpoint can be scraped as-is.
+ */
+public final class StatsHandler implements HttpHandler {
+
+    /** Appends one or more complete {@code name value} lines. */
+    public interface Source {
+        void appendTo(StringBuilder out);
+    }
+
+    private final List<Source> sources = new ArrayList<>();
+
+    public synchronized StatsHandler register(String name, LongSupplier value) {
+        return register(out -> out.append(name).append(' ').append(value.getAsLong()).append('\n'));
+    }
+
+    public synchronized StatsHandler register(Source source) {
+        sources.add(source);
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            StringBuilder body = new StringBuilder();
+            synchronized (this) {
+                for (Source source : sources) {
+                    source.appendTo(body);
+                }
+            }
+            byte[] response = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(response);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
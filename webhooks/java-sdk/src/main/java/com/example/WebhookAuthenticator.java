@@ -0,0 +1,238 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional authentication for {@code POST /webhook}, checked before the body
+ * is parsed or journaled.
+ *
+ * <ul>
+ *   <li>An allowlist of addresses and CIDR ranges; any other source gets a 403
+ *       without its body being read.</li>
+ *   <li>A shared secret in a request header, in one of two modes. In
+ *       {@code token} mode the header must equal a secret, so the check needs
+ *       no body. In {@code hmac} mode the header carries an HMAC of the raw
+ *       body bytes, hex or Base64, optionally prefixed {@code sha256=}. A
+ *       missing or malformed header is refused before the body is read.</li>
+ * </ul>
+ *
+ * <p>Several secrets may be configured so one can be rotated without downtime.
+ * Comparisons are constant-time. Initialising a {@code Mac} costs more than
+ * hashing a small payload, so initialised instances are pooled and reused.
+ * The pool is shared rather than per thread because the default executor
+ * runs every request on a fresh virtual thread.
+ */
+public final class WebhookAuthenticator {
+
+    public enum Mode {
+        TOKEN, HMAC;
+
+        public static Mode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final List<byte[]> allowedNetworks = new ArrayList<>();
+    private final List<Integer> allowedPrefixes = new ArrayList<>();
+    private final Mode mode;
+    private final String header;
+    private final List<byte[]> tokens = new ArrayList<>();
+    private final List<MacPool> macs = new ArrayList<>();
+
+    private final AtomicLong rejectedSource = new AtomicLong();
+    private final AtomicLong rejectedSignature = new AtomicLong();
+
+    /**
+     * @param allowlist addresses or CIDR ranges ({@code 203.0.113.0/24}, {@code 2001:db8::/32}); empty allows any source
+     * @param secrets   shared secrets, any of which is accepted; empty disables the header check
+     * @param mode      how the header is checked against the secrets
+     * @param header    request header carrying the token or signature
+     * @param algorithm {@code Mac} algorithm for {@code hmac} mode, e.g. {@code HmacSHA256}
+     */
+    public WebhookAuthenticator(List<String> allowlist, List<String> secrets, Mode mode,
+                                String header, String algorithm) throws GeneralSecurityException {
+        for (String entry : allowlist) {
+            int slash = entry.indexOf('/');
+            byte[] network = literal(slash < 0 ? entry : entry.substring(0, slash));
+            if (network == null) throw new IllegalArgumentException("Not an IP address or CIDR range: " + entry);
+            int prefix = network.length * 8;
+            if (slash >= 0) {
+                String bits = entry.substring(slash + 1);
+                prefix = bits.matches("\\d{1,3}") ? Integer.parseInt(bits) : -1;
+                if (prefix < 0 || prefix > network.length * 8) {
+                    throw new IllegalArgumentException("CIDR prefix must be 0 to " + network.length * 8 + ": " + entry);
+                }
+            }
+            allowedNetworks.add(network);
+            allowedPrefixes.add(prefix);
+        }
+        this.mode = mode;
+        this.header = header;
+        for (String secret : secrets) {
+            byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+            if (mode == Mode.TOKEN) {
+                tokens.add(key);
+            } else {
+                macs.add(new MacPool(algorithm, key));
+            }
+        }
+    }
+
+    /** True when the allowlist is empty or {@code address} falls inside one of its ranges. */
+    public boolean allows(String address) {
+        if (allowedNetworks.isEmpty()) return true;
+        byte[] candidate = literal(address);
+        if (candidate != null) {
+            for (int i = 0; i < allowedNetworks.size(); i++) {
+                if (inRange(candidate, allowedNetworks.get(i), allowedPrefixes.get(i))) return true;
+            }
+        }
+        rejectedSource.incrementAndGet();
+        return false;
+    }
+
+    /** True when deliveries must carry the header. */
+    public boolean checksHeader() {
+        return !tokens.isEmpty() || !macs.isEmpty();
+    }
+
+    /** True when the header can only be checked against the body. */
+    public boolean needsBody() {
+        return !macs.isEmpty();
+    }
+
+    /**
+     * Checks what can be checked from the headers alone. In {@code token} mode
+     * that is the whole check; in {@code hmac} mode the decoded signature is
+     * returned for {@link #verify}. Returns {@code null} to refuse.
+     */
+    public byte[] claimed(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst(header);
+        byte[] claimed = value == null ? null : mode == Mode.TOKEN ? token(value) : signature(value);
+        if (claimed == null) rejectedSignature.incrementAndGet();
+        return claimed;
+    }
+
+    private byte[] token(String value) {
+        byte[] presented = value.trim().getBytes(StandardCharsets.UTF_8);
+        boolean match = false;
+        for (byte[] token : tokens) {
+            match |= MessageDigest.isEqual(token, presented);
+        }
+        return match ? presented : null;
+    }
+
+    private byte[] signature(String value) {
+        String encoded = value.trim();
+        int eq = encoded.indexOf('=');
+        if (eq > 0 && encoded.substring(0, eq).matches("(?i)sha\\d+")) {
+            encoded = encoded.substring(eq + 1);
+        }
+        int length = macs.get(0).length;
+        try {
+            byte[] decoded = encoded.length() == length * 2 && encoded.chars().allMatch(HexFormat::isHexDigit)
+                    ? HexFormat.of().parseHex(encoded)
+                    : Base64.getDecoder().decode(encoded);
+            return decoded.length == length ? decoded : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** HMAC of {@code body} under each secret, compared in constant time with {@code claimed}. */
+    public boolean verify(ByteBuffer body, byte[] claimed) {
+        boolean match = false;
+        for (MacPool pool : macs) {
+            match |= MessageDigest.isEqual(pool.sign(body.duplicate()), claimed);
+        }
+        if (!match) rejectedSignature.incrementAndGet();
+        return match;
+    }
+
+    public long rejectedSource() { return rejectedSource.get(); }
+
+    public long rejectedSignature() { return rejectedSignature.get(); }
+
+    /**
+     * Parses an IPv4 or IPv6 literal. Anything else returns {@code null}
+     * rather than going to DNS, so a forged {@code X-Forwarded-For} cannot
+     * trigger a lookup.
+     */
+    private static byte[] literal(String address) {
+        String candidate = address.trim();
+        if (candidate.startsWith("[") && candidate.endsWith("]")) {
+            candidate = candidate.substring(1, candidate.length() - 1);
+        }
+        if (candidate.isEmpty() || !candidate.chars().allMatch(c -> c == '.' || c == ':' || HexFormat.isHexDigit(c))) {
+            return null;
+        }
+        if (candidate.indexOf(':') < 0 && candidate.chars().anyMatch(c -> c != '.' && !Character.isDigit(c))) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(candidate).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static boolean inRange(byte[] address, byte[] network, int prefix) {
+        if (address.length != network.length) return false;
+        int full = prefix / 8;
+        for (int i = 0; i < full; i++) {
+            if (address[i] != network[i]) return false;
+        }
+        int bits = prefix % 8;
+        if (bits == 0) return true;
+        int mask = 0xff << (8 - bits) & 0xff;
+        return (address[full] & mask) == (network[full] & mask);
+    }
+
+    /** Initialised {@code Mac}s for one secret, cloned from a prototype as concurrency grows. */
+    private static final class MacPool {
+        final Mac prototype;
+        final int length;
+        final ConcurrentLinkedQueue<Mac> free = new ConcurrentLinkedQueue<>();
+
+        MacPool(String algorithm, byte[] key) throws GeneralSecurityException {
+            prototype = Mac.getInstance(algorithm);
+            prototype.init(new SecretKeySpec(key, algorithm));
+            length = prototype.getMacLength();
+        }
+
+        byte[] sign(ByteBuffer body) {
+            Mac mac = free.poll();
+            if (mac == null) mac = copy();
+            try {
+                mac.update(body);
+                return mac.doFinal();
+            } finally {
+                free.offer(mac);
+            }
+        }
+
+        private Mac copy() {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(prototype.getAlgorithm() + " cannot be cloned", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Reads the journal on one dispatcher thread and fans entries out to N
+ * worker lanes, hashed by paypoint so events for one paypoint are always
+ * handled in journal order while different paypoints run in parallel.
+ *
+ * <p>Each lane has a bounded queue; a full lane blocks the dispatcher, and
+ * {@link #isOverloaded()} lets the HTTP handler refuse new deliveries with a
+ * 503 once the journal lag or the queued backlog crosses its limit.
+ *
+ * <p>The consumer offset is committed as the lowest offset any lane still
+ * has in flight, so a crash replays at most the entries that were queued or
+ * running, never skips one. A downstream stage that finishes entries after
+ * the lane returns, such as {@link WebhookFanout}, holds the commit back
+ * with {@link #holdCommitsAt} until it is done with them. Each lane parses its own entries and owns a
+ * slice of the duplicate-suppression budget; all deliveries of one event
+ * share a paypoint and therefore a lane.
+ */
+public final class WebhookConsumerPipeline implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookConsumerPipeline.class);
+
+    /** Receives each parsed, non-duplicate entry on its lane's thread. */
+    public interface EventSink {
+        void accept(WebhookEvent event, boolean parsed, WebhookJournal.Entry entry);
+    }
+
+    private final WebhookJournal journal;
+    private final WebhookJournal.Cursor cursor;
+    private final WebhookEventParser keyParser;
+    private final WebhookEvent keyEvent = new WebhookEvent();
+    private final Lane[] lanes;
+    private final long maxLagBytes;
+    private final int maxQueued;
+    private final Object commitLock = new Object();
+
+    private volatile long dispatched;
+    private volatile LongSupplier downstream = () -> Long.MAX_VALUE;
+    private long lastCommit;
+
+    /**
+     * @param journal     journal to consume; the cursor starts at its committed offset
+     * @param aliases     field names for the full per-lane parse
+     * @param laneCount   number of worker lanes
+     * @param laneQueue   entries each lane may have queued before the dispatcher blocks
+     * @param maxLagBytes journal lag at which {@link #isOverloaded()} turns true, or 0 to ignore lag
+     * @param dedupBytes  total duplicate-suppression memory across lanes, or 0 to disable
+     * @param dedupTtlMillis how long an event ID is remembered
+     * @param sink        receives every non-duplicate entry
+     */
+    public WebhookConsumerPipeline(WebhookJournal journal, Map<WebhookEvent.Field, List<String>> aliases,
+                                   int laneCount, int laneQueue, long maxLagBytes,
+                                   long dedupBytes, long dedupTtlMillis, EventSink sink) {
+        if (maxLagBytes < 0) throw new IllegalArgumentException("maxLagBytes must be 0 or more: " + maxLagBytes);
+        this.journal = journal;
+        this.cursor = journal.consumer();
+        this.dispatched = cursor.position();
+        this.lastCommit = cursor.position();
+        this.maxLagBytes = maxLagBytes;
+        this.maxQueued = laneCount * laneQueue;
+
+        List<String> keyNames = aliases.getOrDefault(WebhookEvent.Field.PAYPOINT, List.of());
+        this.keyParser = new WebhookEventParser(Map.of(WebhookEvent.Field.PAYPOINT, keyNames));
+
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            WebhookDeduplicator dedup = dedupBytes > 0
+                    ? new WebhookDeduplicator(dedupBytes / laneCount, dedupTtlMillis) : null;
+            lanes[i] = new Lane(i, laneQueue, new WebhookEventParser(aliases), dedup, sink);
+            lanes[i].thread.start();
+        }
+    }
+
+    /** Offset of the next entry the dispatcher will read. */
+    public long position() { return cursor.position(); }
+
+    /** Dispatches entries until the cursor reaches {@code endOffset}. */
+    public void runUntil(long endOffset) throws InterruptedException {
+        while (cursor.position() < endOffset) {
+            dispatch(cursor.take());
+        }
+    }
+
+    /** Dispatches entries until interrupted. */
+    public void run() throws InterruptedException {
+        while (true) {
+            dispatch(cursor.take());
+        }
+    }
+
+    /** Skips everything journaled so far without delivering it. */
+    public void skipToEnd() {
+        cursor.seek(journal.endOffset());
+        dispatched = cursor.position();
+        commit();
+    }
+
+    private void dispatch(WebhookJournal.Entry entry) throws InterruptedException {
+        Lane lane = lanes[laneFor(entry)];
+        // An idle lane's floor jumps to this entry; a busy lane's floor is
+        // already at or below it.
+        if (lane.dispatchedCount == lane.completedCount) {
+            lane.floor = entry.offset();
+        }
+        lane.dispatchedCount++;
+        lane.queue.put(entry);
+        dispatched = entry.nextOffset();
+    }
+
+    private int laneFor(WebhookJournal.Entry entry) {
+        if (lanes.length == 1) return 0;
+        try {
+            keyParser.parse(entry.payload(), keyEvent);
+        } catch (Exception e) {
+            return 0; // unparseable payloads share lane 0 and keep their order
+        }
+        CharSequence key = keyEvent.paypoint();
+        int hash = 0;
+        for (int i = 0; i < key.length(); i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, lanes.length);
+    }
+
+    /**
+     * Never commits at or past the offset {@code unfinishedFrom} returns.
+     * The sink must take hold of an entry before {@link EventSink#accept}
+     * returns; call {@link #commit} once it lets go.
+     */
+    public void holdCommitsAt(LongSupplier unfinishedFrom) {
+        this.downstream = unfinishedFrom;
+        commit();
+    }
+
+    /**
+     * Commits the lowest offset still in flight. Every value computed here
+     * stays a safe lower bound, so commits only ever move forward.
+     */
+    public void commit() {
+        long safe = dispatched;
+        for (Lane lane : lanes) {
+            if (lane.dispatchedCount != lane.completedCount) {
+                safe = Math.min(safe, lane.floor);
+            }
+        }
+        // Read after the lanes: an entry is held downstream before its lane
+        // completes, so it is always seen in one place or the other.
+        safe = Math.min(safe, downstream.getAsLong());
+        synchronized (commitLock) {
+            if (safe > lastCommit) {
+                lastCommit = safe;
+                journal.commit(safe);
+            }
+        }
+    }
+
+    /** True when the consumer is too far behind to accept more deliveries. */
+    public boolean isOverloaded() {
+        return pressure() >= 1;
+    }
+
+    /**
+     * How close the consumer is to its limits: the larger of journal lag over
+     * {@code maxLagBytes} (unless that is 0) and queued entries over the
+     * lanes' capacity. 1 or more means overloaded.
+     */
+    public double pressure() {
+        double lag = maxLagBytes > 0 ? (double) lagBytes() / maxLagBytes : 0;
+        return Math.max(lag, (double) queued() / maxQueued);
+    }
+
+    /**
+     * Smoothed time from journal append to delivery on the slowest busy
+     * lane; an idle lane counts as caught up.
+     */
+    public long consumerDelayMillis() {
+        long worst = 0;
+        for (Lane lane : lanes) {
+            if (lane.dispatchedCount != lane.completedCount) worst = Math.max(worst, lane.delayMillis);
+        }
+        return worst;
+    }
+
+    /** Entries queued across all lanes. */
+    public long queued() {
+        long total = 0;
+        for (Lane lane : lanes) total += lane.queue.size();
+        return total;
+    }
+
+    /** Bytes journaled but not yet committed. */
+    public long lagBytes() {
+        return journal.endOffset() - journal.committedOffset();
+    }
+
+    public int laneCount() { return lanes.length; }
+
+    public long duplicates() {
+        long total = 0;
+        for (Lane lane : lanes) if (lane.dedup != null) total += lane.dedup.duplicates();
+        return total;
+    }
+
+    public long dedupEvictions() {
+        long total = 0;
+        for (Lane lane : lanes) if (lane.dedup != null) total += lane.dedup.evictions();
+        return total;
+    }
+
+    public long dedupOccupiedSlots() {
+        long total = 0;
+        for (Lane lane : lanes) if (lane.dedup != null) total += lane.dedup.occupiedSlots();
+        return total;
+    }
+
+    public long dedupCapacity() {
+        long total = 0;
+        for (Lane lane : lanes) if (lane.dedup != null) total += lane.dedup.capacity();
+        return total;
+    }
+
+    /** Waits until every dispatched entry has been handled. */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Lane lane : lanes) {
+            while (lane.dispatchedCount != lane.completedCount) {
+                if (System.nanoTime() > deadline) return false;
+                Thread.sleep(1);
+            }
+        }
+        commit();
+        return true;
+    }
+
+    @Override
+    public void close() {
+        for (Lane lane : lanes) lane.thread.interrupt();
+    }
+
+    private final class Lane implements Runnable {
+        final ArrayBlockingQueue<WebhookJournal.Entry> queue;
+        final WebhookEventParser parser;
+        final WebhookEvent event = new WebhookEvent();
+        final WebhookDeduplicator dedup;
+        final EventSink sink;
+        final Thread thread;
+
+        // Lower bound on the offset of anything this lane has in flight.
+        volatile long floor;
+        // Moving average of append-to-delivery time, written by the lane thread only.
+        volatile long delayMillis;
+        volatile long dispatchedCount;
+        volatile long completedCount;
+
+        Lane(int index, int capacity, WebhookEventParser parser, WebhookDeduplicator dedup, EventSink sink) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.parser = parser;
+            this.dedup = dedup;
+            this.sink = sink;
+            this.thread = new Thread(this, "webhook-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    WebhookJournal.Entry entry = queue.take();
+                    try {
+                        handle(entry);
+                    } catch (Exception e) {
+                        logger.atError().addKeyValue("offset", entry.offset()).log("Webhook consumer error: {}", e.getMessage());
+                    }
+                    long delay = System.currentTimeMillis() - entry.timestampMillis();
+                    delayMillis = (delayMillis * 7 + delay) / 8;
+                    floor = entry.nextOffset();
+                    completedCount++;
+                    commit();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void handle(WebhookJournal.Entry entry) {
+            boolean parsed = false;
+            try {
+                parsed = parser.parse(entry.payload(), event);
+                event.offset = entry.offset();
+            } catch (Exception e) {
+                logger.atWarn().addKeyValue("offset", entry.offset()).log("Could not parse webhook payload: {}", e.getMessage());
+            }
+            if (dedup != null && !dedup.firstSeen(
+                    WebhookDeduplicator.key(parsed ? event : null, entry.payload()), System.currentTimeMillis())) {
+                // Counted in duplicates(); one line each only when debugging.
+                logger.atDebug().addKeyValue("offset", entry.offset()).log("Suppressed duplicate webhook delivery");
+                return;
+            }
+            sink.accept(event, parsed, entry);
+        }
+    }
+}
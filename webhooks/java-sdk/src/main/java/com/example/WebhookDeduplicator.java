@@ -0,0 +1,121 @@
+package com.example;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded, off-heap seen-set that suppresses repeated deliveries of the same
+ * webhook event.
+ *
+ * <p>Keys are 64-bit hashes of the event type and transaction ID (or of the
+ * raw payload when there is no transaction ID). The table is a direct buffer
+ * sized from a memory ceiling and organised as 8-way sets: a key can only
+ * live in its own set, entries older than the TTL count as free, and when a
+ * set is full the oldest entry is evicted. Memory never grows past the
+ * ceiling and nothing is allocated per event.
+ *
+ * <p>Not thread-safe for writers; the consumer thread owns it. Counters may be
+ * read from any thread.
+ */
+public final class WebhookDeduplicator {
+
+    private static final int WAYS = 8;
+    private static final int SLOT_BYTES = 16;
+
+    private final ByteBuffer table;
+    private final int setMask;
+    private final long ttlMillis;
+
+    private volatile long duplicates;
+    private volatile long evictions;
+    private volatile long occupied;
+
+    /**
+     * @param maxBytes  memory ceiling for the table (rounded down to a power of two)
+     * @param ttlMillis how long an event ID is remembered
+     */
+    public WebhookDeduplicator(long maxBytes, long ttlMillis) {
+        long sets = Long.highestOneBit(Math.max(1, maxBytes / (SLOT_BYTES * WAYS)));
+        sets = Math.min(sets, (1 << 30) / (SLOT_BYTES * WAYS)); // a direct buffer is int-indexed
+        this.table = ByteBuffer.allocateDirect((int) (sets * WAYS * SLOT_BYTES));
+        this.setMask = (int) sets - 1;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /** Deliveries suppressed as duplicates. */
+    public long duplicates() { return duplicates; }
+
+    /** Live entries pushed out because their set was full. */
+    public long evictions() { return evictions; }
+
+    /** Slots holding a key (live or expired but not yet reused). */
+    public long occupiedSlots() { return occupied; }
+
+    public long capacity() { return (long) (setMask + 1) * WAYS; }
+
+    public long sizeBytes() { return table.capacity(); }
+
+    /**
+     * Records {@code key} and returns {@code true} the first time it is seen
+     * within the TTL; returns {@code false} for a duplicate.
+     */
+    public boolean firstSeen(long key, long nowMillis) {
+        if (key == 0) key = 1; // 0 marks an empty slot
+        int base = (int) (mix(key) & setMask) * WAYS * SLOT_BYTES;
+        int victim = -1;
+        long victimSeen = Long.MAX_VALUE;
+        for (int way = 0; way < WAYS; way++) {
+            int slot = base + way * SLOT_BYTES;
+            long stored = table.getLong(slot);
+            long seenAt = table.getLong(slot + 8);
+            boolean live = stored != 0 && nowMillis - seenAt < ttlMillis;
+            if (live && stored == key) {
+                duplicates++;
+                return false;
+            }
+            // Prefer an empty slot, then an expired one, then the oldest live one.
+            long rank = stored == 0 ? Long.MIN_VALUE : live ? seenAt : Long.MIN_VALUE + 1;
+            if (rank < victimSeen) {
+                victimSeen = rank;
+                victim = slot;
+            }
+        }
+        long evicted = table.getLong(victim);
+        if (evicted == 0) occupied++;
+        else if (nowMillis - table.getLong(victim + 8) < ttlMillis) evictions++;
+        table.putLong(victim, key);
+        table.putLong(victim + 8, nowMillis);
+        return true;
+    }
+
+    /**
+     * Dedup key for a parsed event: its type and transaction ID, or the raw
+     * payload bytes when the event carries no transaction ID.
+     */
+    public static long key(WebhookEvent event, ByteBuffer payload) {
+        long hash = 0xcbf29ce484222325L;
+        if (event != null && event.transactionId().length() > 0) {
+            hash = fnv(hash, event.eventType());
+            hash = (hash ^ ':') * 0x100000001b3L;
+            return fnv(hash, event.transactionId());
+        }
+        for (int i = payload.position(); i < payload.limit(); i++) {
+            hash = (hash ^ (payload.get(i) & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long fnv(long hash, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** Spreads the hash so the set index uses every bit. */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example;
+
+/**
+ * Reusable flyweight holding the fields the consumer routes on. One instance
+ * is refilled by {@link WebhookEventParser} for every payload, so text fields
+ * are kept in {@link StringBuilder}s and only become {@code String}s if a
+ * caller asks.
+ */
+public final class WebhookEvent {
+
+    /** Fields the parser can extract. */
+    public enum Field { EVENT_TYPE, TRANSACTION_ID, AMOUNT, PAYPOINT }
+
+    final StringBuilder eventType = new StringBuilder(32);
+    final StringBuilder transactionId = new StringBuilder(32);
+    final StringBuilder paypoint = new StringBuilder(32);
+    double amount;
+    boolean hasAmount;
+    long offset;
+
+    void clear() {
+        eventType.setLength(0);
+        transactionId.setLength(0);
+        paypoint.setLength(0);
+        amount = 0;
+        hasAmount = false;
+        offset = -1;
+    }
+
+    public CharSequence eventType()     { return eventType; }
+    public CharSequence transactionId() { return transactionId; }
+    public CharSequence paypoint()      { return paypoint; }
+    public double amount()              { return amount; }
+    public boolean hasAmount()          { return hasAmount; }
+
+    /** Journal offset of the payload this event was parsed from. */
+    public long offset()                { return offset; }
+
+    /** Compares the event type without materializing a {@code String}. */
+    public boolean isEventType(String type) {
+        return type.contentEquals(eventType);
+    }
+
+    @Override
+    public String toString() {
+        return "Event=" + eventType
+                + ", TransactionId=" + transactionId
+                + ", Amount=" + (hasAmount ? String.format("%.2f", amount) : "")
+                + ", Paypoint=" + paypoint;
+    }
+}
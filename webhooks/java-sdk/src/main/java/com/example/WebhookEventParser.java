@@ -0,0 +1,119 @@
+package com.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming extractor for webhook payloads.
+ *
+ * <p>Feeds the journaled bytes straight into Jackson's non-blocking
+ * {@code ByteBuffer} parser, walks the token stream once, and copies only the
+ * configured fields into a reusable {@link WebhookEvent}. No tree is built and
+ * no payload {@code String} is created; parsing stops as soon as every
+ * configured field has been seen.
+ *
+ * <p>Each field can have several accepted JSON names (matched at any depth,
+ * first occurrence wins), since different Payabli event types spell the same
+ * value differently.
+ */
+public final class WebhookEventParser {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Map<String, WebhookEvent.Field> names = new HashMap<>();
+    private final int fieldCount;
+
+    /** @param aliases accepted JSON field names for each field to extract */
+    public WebhookEventParser(Map<WebhookEvent.Field, List<String>> aliases) {
+        for (Map.Entry<WebhookEvent.Field, List<String>> entry : aliases.entrySet()) {
+            for (String name : entry.getValue()) {
+                names.put(name, entry.getKey());
+            }
+        }
+        this.fieldCount = aliases.size();
+    }
+
+    /** Field names used by Payabli notification payloads. */
+    public static Map<WebhookEvent.Field, List<String>> defaultAliases() {
+        Map<WebhookEvent.Field, List<String>> aliases = new EnumMap<>(WebhookEvent.Field.class);
+        aliases.put(WebhookEvent.Field.EVENT_TYPE, List.of("Event", "EventType"));
+        aliases.put(WebhookEvent.Field.TRANSACTION_ID, List.of("transId", "TransactionId", "PaymentTransId"));
+        aliases.put(WebhookEvent.Field.AMOUNT, List.of("totalAmount", "TotalAmount", "Amount"));
+        aliases.put(WebhookEvent.Field.PAYPOINT, List.of("entryPoint", "EntryPoint", "paypoint", "PaypointId"));
+        return aliases;
+    }
+
+    /**
+     * Parses {@code payload} into {@code event}, clearing it first.
+     *
+     * @return {@code false} if the payload is not a JSON object
+     */
+    public boolean parse(ByteBuffer payload, WebhookEvent event) throws IOException {
+        event.clear();
+        try (JsonParser parser = JSON.createNonBlockingByteBufferParser()) {
+            ByteBufferFeeder feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            feeder.feedInput(payload.duplicate());
+            feeder.endOfInput();
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) return false;
+            int found = 0;
+            int seen = 0;
+            JsonToken token;
+            while (found < fieldCount && (token = parser.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME) continue;
+                WebhookEvent.Field field = names.get(parser.currentName());
+                if (field == null) continue;
+
+                token = parser.nextToken();
+                int bit = 1 << field.ordinal();
+                if ((seen & bit) != 0 || !token.isScalarValue() || token == JsonToken.VALUE_NULL) continue;
+                if (store(parser, token, field, event)) {
+                    seen |= bit;
+                    found++;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static boolean store(JsonParser parser, JsonToken token,
+                                 WebhookEvent.Field field, WebhookEvent event) throws IOException {
+        switch (field) {
+            case AMOUNT:
+                if (token.isNumeric()) {
+                    event.amount = parser.getDoubleValue();
+                } else {
+                    try {
+                        event.amount = Double.parseDouble(parser.getText());
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+                event.hasAmount = true;
+                return true;
+            case EVENT_TYPE:
+                return append(parser, event.eventType);
+            case TRANSACTION_ID:
+                return append(parser, event.transactionId);
+            case PAYPOINT:
+                return append(parser, event.paypoint);
+            default:
+                return false;
+        }
+    }
+
+    /** Copies the current scalar's text from the parser's own buffer. */
+    private static boolean append(JsonParser parser, StringBuilder target) throws IOException {
+        target.append(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        return true;
+    }
+}
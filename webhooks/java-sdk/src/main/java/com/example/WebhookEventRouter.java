@@ -0,0 +1,40 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Dispatches parsed events to a handler by event type. Routes are matched in
+ * registration order against the flyweight's text, so no key {@code String}
+ * is built per event.
+ */
+public final class WebhookEventRouter {
+
+    private final List<String> types = new ArrayList<>();
+    private final List<Consumer<WebhookEvent>> handlers = new ArrayList<>();
+    private Consumer<WebhookEvent> fallback = event -> {};
+
+    /** Handles events whose type equals {@code eventType}. */
+    public WebhookEventRouter on(String eventType, Consumer<WebhookEvent> handler) {
+        types.add(eventType);
+        handlers.add(handler);
+        return this;
+    }
+
+    /** Handles events that match no route. */
+    public WebhookEventRouter otherwise(Consumer<WebhookEvent> handler) {
+        this.fallback = handler;
+        return this;
+    }
+
+    public void dispatch(WebhookEvent event) {
+        for (int i = 0; i < types.size(); i++) {
+            if (event.isEventType(types.get(i))) {
+                handlers.get(i).accept(event);
+                return;
+            }
+        }
+        fallback.accept(event);
+    }
+}
@@ -9,6 +9,7 @@ import io.github.payabli.api.types.TransRequestBody;
 import io.github.payabli.api.types.AddNotificationRequest;
 import io.github.payabli.api.types.PayMethodCreditMethod;
 import io.github.payabli.api.resources.moneyin.requests.RequestPaymentV2;
+import io.github.payabli.api.resources.query.requests.ListNotificationsOrgRequest;
 import io.github.payabli.api.types.NotificationStandardRequest;
 import io.github.payabli.api.types.NotificationStandardRequestContent;
 import io.github.payabli.api.types.NotificationStandardRequestContentEventType;
@@ -19,24 +20,62 @@ import io.github.payabli.api.types.PaymentDetail;
 import io.github.payabli.api.types.PaymentMethod;
 import io.github.payabli.api.types.PayMethodCredit;
 import io.github.payabli.api.types.PayorDataRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class WebhookExample {
 
-    // Thread-safe queue: the HTTP handler thread pushes received payloads
-    // here; the main thread blocks on take() until one arrives.
-    private static final LinkedBlockingQueue<String> webhookQueue = new LinkedBlockingQueue<>();
+    private static final Logger logger = LoggerFactory.getLogger(WebhookExample.class);
+
+    // Durable journal: the HTTP handler thread appends received payloads
+    // here; the main thread blocks on a cursor until one arrives. Events
+    // survive a crash and the consumer resumes from its committed offset.
+    private static WebhookJournal journal;
+
+    // Forwards consumed events to the configured downstream sinks, each on
+    // its own queue; null when no sink is configured.
+    private static WebhookFanout fanout;
+
+    // Request latency and errors for the HTTP contexts and for each Payabli
+    // API operation, served with the other counters on /stats and /metrics.
+    private static final CallMetrics httpMetrics = new CallMetrics("http_server_requests", "route");
+    private static final CallMetrics apiMetrics = new CallMetrics("payabli_client_requests", "operation");
+
+    // Each consumer lane parses payloads into its own reusable event and
+    // routes it on the event type; only the configured fields are read.
+    private static final WebhookEventRouter router = new WebhookEventRouter()
+            // The event is reused, so its text fields are copied before the
+            // log line is handed to the background writer.
+            .on("ApprovedPayment", e -> logger.atInfo()
+                    .addKeyValue("amount", e.amount())
+                    .addKeyValue("paypoint", e.paypoint().toString())
+                    .log("Approved payment"))
+            .otherwise(e -> {
+                if (e.eventType().length() > 0) {
+                    logger.atInfo().addKeyValue("eventType", e.eventType().toString()).log("Unrouted event type");
+                }
+            });
 
     public static void main(String[] args) throws Exception {
         // ── Load .env ──────────────────────────────────────────────────────
@@ -47,6 +86,16 @@ public class WebhookExample {
         String ownerIdStr = firstNonNull(dotenv.get("OWNER_ID"),      System.getenv("OWNER_ID"));
         String portStr    = firstNonNull(dotenv.get("PORT"),          System.getenv("PORT"), "3000");
 
+        // A class-data sharing training run never calls the API, so it needs
+        // no credentials, and takes any free port.
+        boolean training = StartupTraining.enabled();
+        if (training) {
+            apiKey     = firstNonNull(apiKey, "training");
+            entrypoint = firstNonNull(entrypoint, "training");
+            ownerIdStr = firstNonNull(ownerIdStr, "0");
+            portStr    = "0";
+        }
+
         if (apiKey     == null) { System.err.println("PAYABLI_KEY missing in .env");  System.exit(1); }
         if (entrypoint == null) { System.err.println("PAYABLI_ENTRY missing in .env"); System.exit(1); }
         if (ownerIdStr == null) { System.err.println("OWNER_ID missing in .env");     System.exit(1); }
@@ -54,60 +103,207 @@ public class WebhookExample {
         int ownerId = Integer.parseInt(ownerIdStr);
         int port    = Integer.parseInt(portStr);
 
-        // ── Build Payabli client ────────────────────────────────────────────
-        PayabliApiClient client = new PayabliApiClientBuilder()
-                .apiKey(apiKey)
-            .environment(Environment.SANDBOX)
-                .build();
+        // ── Coordinate shutdown: stop intake, drain, then close the journal ─
+        WebhookLifecycle lifecycle = new WebhookLifecycle(
+                Long.parseLong(setting(dotenv, "WEBHOOK_DRAIN_SECONDS", "20")),
+                Long.parseLong(setting(dotenv, "WEBHOOK_READINESS_DELAY_MS", "0")))
+                .installShutdownHook();
+
+        // ── Open the webhook journal ────────────────────────────────────────
+        // Each segment is mapped as one buffer, so it must stay under 2 GiB.
+        int segmentMb = Integer.parseInt(setting(dotenv, "WEBHOOK_JOURNAL_SEGMENT_MB", "64"));
+        if (segmentMb < 1 || segmentMb > 2047) { System.err.println("WEBHOOK_JOURNAL_SEGMENT_MB must be 1 to 2047"); System.exit(1); }
+        journal = WebhookJournal.open(new WebhookJournal.Config(
+                training ? Files.createTempDirectory("webhook-training-")
+                        : Paths.get(setting(dotenv, "WEBHOOK_JOURNAL_DIR", "webhook-journal")),
+                segmentMb * 1024 * 1024,
+                Integer.parseInt(setting(dotenv, "WEBHOOK_JOURNAL_FSYNC_BATCH", "64")),
+                Long.parseLong(setting(dotenv, "WEBHOOK_JOURNAL_FSYNC_INTERVAL_MS", "200")),
+                Long.parseLong(setting(dotenv, "WEBHOOK_JOURNAL_RETAIN_MB", "512")) * 1024 * 1024));
+        lifecycle.manage(journal);
+
+        // ── Configure which payload fields the consumer extracts ────────────
+        Map<WebhookEvent.Field, List<String>> aliases = WebhookEventParser.defaultAliases();
+        for (WebhookEvent.Field field : WebhookEvent.Field.values()) {
+            String names = setting(dotenv, "WEBHOOK_FIELDS_" + field.name(), null);
+            if (names == null) continue;
+            if (names.isBlank()) aliases.remove(field);
+            else aliases.put(field, Arrays.asList(names.trim().split("\\s*,\\s*")));
+        }
+
+        // ── Start the downstream sinks ──────────────────────────────────────
+        // A gzip NDJSON file and any number of batched HTTP endpoints, e.g.
+        // WEBHOOK_SINK_HTTP=ledger=https://ledger.internal/events,relay=...
+        boolean sinkGzip = !"off".equalsIgnoreCase(setting(dotenv, "WEBHOOK_SINK_GZIP", "on"));
+        List<WebhookSink> sinks = new ArrayList<>();
+        String sinkDir = setting(dotenv, "WEBHOOK_SINK_FILE_DIR", "");
+        if (!sinkDir.isEmpty()) {
+            sinks.add(new NdjsonFileSink("file", Paths.get(sinkDir), sinkGzip));
+        }
+        Duration sinkTimeout = Duration.ofMillis(Long.parseLong(setting(dotenv, "WEBHOOK_SINK_HTTP_TIMEOUT_MS", "10000")));
+        for (String target : setting(dotenv, "WEBHOOK_SINK_HTTP", "").split(",")) {
+            int eq = target.indexOf('=');
+            if (eq > 0) {
+                sinks.add(new HttpBatchSink(target.substring(0, eq).trim(),
+                        URI.create(target.substring(eq + 1).trim()), sinkGzip, sinkTimeout));
+            }
+        }
+        if (!sinks.isEmpty() && !training) {
+            Set<String> sinkEvents = new LinkedHashSet<>();
+            for (String type : setting(dotenv, "WEBHOOK_SINK_EVENTS", "ApprovedPayment").split(",")) {
+                if (!type.isBlank()) sinkEvents.add(type.trim());
+            }
+            fanout = new WebhookFanout(sinks, sinkEvents,
+                    Integer.parseInt(setting(dotenv, "WEBHOOK_SINK_QUEUE", "10000")),
+                    Integer.parseInt(setting(dotenv, "WEBHOOK_SINK_BATCH_EVENTS", "100")),
+                    Long.parseLong(setting(dotenv, "WEBHOOK_SINK_BATCH_MS", "250")),
+                    Integer.parseInt(setting(dotenv, "WEBHOOK_SINK_MAX_ATTEMPTS", "10")),
+                    Long.parseLong(setting(dotenv, "WEBHOOK_SINK_RETRY_MS", "500")));
+            lifecycle.manage(fanout);
+            System.out.printf("Forwarding %s to sinks: %s%n", sinkEvents.isEmpty() ? "all events" : sinkEvents,
+                    sinks.stream().map(WebhookSink::name).toList());
+        }
+
+        // ── Start the consumer lanes ────────────────────────────────────────
+        // Events are hashed by paypoint onto lanes, so each paypoint keeps its
+        // order; duplicate deliveries are suppressed within each lane.
+        boolean dedup = !"off".equalsIgnoreCase(setting(dotenv, "WEBHOOK_DEDUP", "on"));
+        WebhookConsumerPipeline pipeline = new WebhookConsumerPipeline(journal, aliases,
+                Integer.parseInt(setting(dotenv, "WEBHOOK_CONSUMER_LANES",
+                        Integer.toString(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(setting(dotenv, "WEBHOOK_LANE_QUEUE", "1024")),
+                Long.parseLong(setting(dotenv, "WEBHOOK_MAX_LAG_MB", "256")) * 1024 * 1024,
+                dedup ? Long.parseLong(setting(dotenv, "WEBHOOK_DEDUP_MAX_MB", "16")) * 1024 * 1024 : 0,
+                Long.parseLong(setting(dotenv, "WEBHOOK_DEDUP_TTL_MINUTES", "1440")) * 60_000,
+                WebhookExample::deliver);
+        lifecycle.manage(pipeline);
+        if (fanout != null) {
+            // Events a sink has not written yet stay uncommitted.
+            pipeline.holdCommitsAt(fanout::unfinishedFrom);
+            fanout.onDelivered(pipeline::commit);
+        }
 
         // ── Start the HTTP server (JDK built-in) ───────────────────────────
         // Using com.sun.net.httpserver.HttpServer instead of a framework to
         // eliminate any routing or threading quirks.
         HttpServer server = HttpServer.create(new InetSocketAddress("0.0.0.0", port), 0);
-        server.createContext("/", exchange -> {
-            try {
-                String method = exchange.getRequestMethod();
-                String path   = exchange.getRequestURI().getPath();
-
-                // Log every inbound request.
-                System.out.printf("→ %s %s (Content-Type: %s, User-Agent: %s)%n",
-                        method, path,
-                        exchange.getRequestHeaders().getFirst("Content-Type"),
-                        exchange.getRequestHeaders().getFirst("User-Agent"));
-                System.out.flush();
-
-                if ("POST".equals(method) && "/webhook".equals(path)) {
-                    // Read the full body and push it to the main thread.
-                    byte[] bodyBytes = exchange.getRequestBody().readAllBytes();
-                    String body = new String(bodyBytes, StandardCharsets.UTF_8);
-                    System.out.printf("[webhook handler] received %d bytes, pushing to queue%n", body.length());
-                    System.out.flush();
-                    webhookQueue.offer(body);
-                    exchange.sendResponseHeaders(200, 0);
-                    exchange.getResponseBody().close();
-                } else if ("GET".equals(method)) {
-                    byte[] response = "Payabli Webhook Test".getBytes(StandardCharsets.UTF_8);
-                    exchange.sendResponseHeaders(200, response.length);
-                    try (OutputStream os = exchange.getResponseBody()) {
-                        os.write(response);
-                    }
-                } else {
-                    exchange.sendResponseHeaders(404, 0);
-                    exchange.getResponseBody().close();
-                }
-            } catch (Exception e) {
-                System.err.printf("Request handler error: %s%n", e.getMessage());
-                try {
-                    exchange.sendResponseHeaders(500, 0);
-                    exchange.getResponseBody().close();
-                } catch (Exception ignored) {}
-            } finally {
-                exchange.close();
-            }
-        });
-        server.setExecutor(Executors.newCachedThreadPool());
+        // Pooled ingest reads bodies into reusable buffers; "copy" keeps the
+        // original readAllBytes() path for comparison.
+        String ingestMode = setting(dotenv, "WEBHOOK_INGEST", "pooled");
+        BufferPool bufferPool = "copy".equalsIgnoreCase(ingestMode) ? null : new BufferPool(
+                Integer.parseInt(setting(dotenv, "WEBHOOK_INGEST_BUFFERS", "64")),
+                Integer.parseInt(setting(dotenv, "WEBHOOK_INGEST_BUFFER_KB", "64")) * 1024);
+        // Shed on whichever is worse: journal lag and queued events, or how
+        // far behind the slowest busy lane is running.
+        // A delay limit of 0 leaves consumer delay out.
+        long maxConsumerDelay = Long.parseLong(setting(dotenv, "WEBHOOK_MAX_CONSUMER_DELAY_MS", "30000"));
+        if (maxConsumerDelay < 0) { System.err.println("WEBHOOK_MAX_CONSUMER_DELAY_MS must be 0 or more"); System.exit(1); }
+        AdmissionController admission = new AdmissionController(lifecycle::isDraining,
+                () -> maxConsumerDelay == 0 ? pipeline.pressure()
+                        : Math.max(pipeline.pressure(), (double) pipeline.consumerDelayMillis() / maxConsumerDelay),
+                Integer.parseInt(setting(dotenv, "WEBHOOK_MAX_IN_FLIGHT_PER_SOURCE", "64")),
+                Integer.parseInt(setting(dotenv, "WEBHOOK_MAX_BODY_KB", "256")) * 1024,
+                Integer.parseInt(setting(dotenv, "WEBHOOK_RETRY_AFTER_SECONDS", "5")),
+                Integer.parseInt(setting(dotenv, "WEBHOOK_RETRY_AFTER_MAX_SECONDS", "60")),
+                Integer.parseInt(setting(dotenv, "WEBHOOK_TRUSTED_PROXY_HOPS", "0")));
+        // Optional sender authentication: an address allowlist and a shared
+        // secret header (a plain token, or an HMAC of the raw body).
+        List<String> allowedIps = csv(setting(dotenv, "WEBHOOK_ALLOWED_IPS", ""));
+        List<String> secrets = csv(setting(dotenv, "WEBHOOK_SHARED_SECRETS", ""));
+        WebhookAuthenticator authenticator = allowedIps.isEmpty() && secrets.isEmpty() ? null
+                : new WebhookAuthenticator(allowedIps, secrets,
+                        WebhookAuthenticator.Mode.parse(setting(dotenv, "WEBHOOK_AUTH_MODE", "hmac")),
+                        setting(dotenv, "WEBHOOK_AUTH_HEADER", "X-Webhook-Signature"),
+                        setting(dotenv, "WEBHOOK_HMAC_ALGORITHM", "HmacSHA256"));
+        server.createContext("/", new WebhookHandler(journal, bufferPool, admission, authenticator))
+              .getFilters().add(httpMetrics.filter(exchange -> "/webhook".equals(exchange.getRequestURI().getPath())
+                      ? exchange.getRequestMethod() + " /webhook"
+                      : exchange.getRequestMethod() + " other"));
+        // Virtual threads by default; a bounded pool sheds with 503 + Retry-After
+        // instead of spawning a platform thread per in-flight delivery.
+        WebhookExecutors.Mode executorMode = WebhookExecutors.Mode.parse(setting(dotenv, "WEBHOOK_EXECUTOR", "virtual"));
+        ExecutorService executor = WebhookExecutors.create(executorMode,
+                Integer.parseInt(setting(dotenv, "WEBHOOK_EXECUTOR_THREADS", "32")),
+                Integer.parseInt(setting(dotenv, "WEBHOOK_EXECUTOR_QUEUE", "256")));
+        server.setExecutor(executor);
+        lifecycle.manage(server, executor);
+        StatsHandler stats = new StatsHandler()
+                .register("journal_end_offset", journal::endOffset)
+                .register("journal_committed_offset", journal::committedOffset)
+                .register("executor_shed_total", WebhookExecutors::shedCount)
+                .register("consumer_lanes", pipeline::laneCount)
+                .register("consumer_queued", pipeline::queued)
+                .register("consumer_lag_bytes", pipeline::lagBytes)
+                .register("consumer_delay_ms", pipeline::consumerDelayMillis)
+                .register("admission_shed_overload_total", admission::shedOverload)
+                .register("admission_shed_source_total", admission::shedSource)
+                .register("admission_too_large_total", admission::rejectedTooLarge)
+                .register(httpMetrics)
+                .register(apiMetrics);
+        RingBufferAppender logRing = RingBufferAppender.find("ASYNC");
+        if (logRing != null) {
+            stats.register(logRing);
+        }
+        if (fanout != null) {
+            stats.register(fanout);
+        }
+        if (authenticator != null) {
+            stats.register("auth_rejected_source_total", authenticator::rejectedSource)
+                 .register("auth_rejected_signature_total", authenticator::rejectedSignature);
+        }
+        // Virtual threads have no pool to saturate; in-flight exchanges above cover them.
+        if (executor instanceof ThreadPoolExecutor pool) {
+            stats.register("executor_active_threads", pool::getActiveCount)
+                 .register("executor_pool_threads", pool::getMaximumPoolSize)
+                 .register("executor_queue_depth", () -> pool.getQueue().size());
+        }
+        if (dedup) {
+            stats.register("dedup_duplicates_total", pipeline::duplicates)
+                 .register("dedup_evictions_total", pipeline::dedupEvictions)
+                 .register("dedup_occupied_slots", pipeline::dedupOccupiedSlots)
+                 .register("dedup_capacity_slots", pipeline::dedupCapacity);
+        }
+        server.createContext("/stats", stats);
+        server.createContext("/metrics", stats);
+        server.createContext("/ready", lifecycle.readinessHandler());
+
+        // Replays re-deliver journaled events to the same sink, bypassing dedup;
+        // the endpoint is only served when an admin token is configured.
+        String adminToken = setting(dotenv, "WEBHOOK_ADMIN_TOKEN", "");
+        if (!adminToken.isEmpty()) {
+            WebhookReplayer replayer = new WebhookReplayer(journal, aliases, WebhookExample::deliver);
+            server.createContext("/replay", new ReplayHandler(replayer, journal, adminToken,
+                    Integer.parseInt(setting(dotenv, "WEBHOOK_REPLAY_PARALLELISM", "4"))));
+            stats.register("replay_delivered_total", () -> replayer.current() == null ? 0 : replayer.current().delivered())
+                 .register("replay_failed_total", () -> replayer.current() == null ? 0 : replayer.current().failed())
+                 .register("replay_position", () -> replayer.current() == null ? 0 : replayer.current().position());
+        }
         server.start();
-        System.out.printf("%nWebhook server listening on http://localhost:%d/webhook%n", port);
+        port = server.getAddress().getPort();
+        System.out.printf("%nWebhook server listening on http://localhost:%d/webhook (executor: %s)%n",
+                port, executorMode.name().toLowerCase());
+
+        // ── Deliver anything journaled but not consumed before the last exit ─
+        long recoveredEnd = journal.endOffset();
+        if (pipeline.position() < recoveredEnd) {
+            System.out.printf("%nRecovering %d bytes of undelivered webhook events from %s...%n",
+                    recoveredEnd - pipeline.position(), journal.committedOffset() == 0 ? "the start" : "the last offset");
+            pipeline.runUntil(recoveredEnd);
+            pipeline.awaitIdle(30, TimeUnit.SECONDS);
+        }
+        lifecycle.ready();
+
+        // PAYABLI_API_URL points the client at a local stand-in for load tests.
+        String apiUrl = setting(dotenv, "PAYABLI_API_URL", "");
+
+        // ── Training run: load a delivery's classes, then exit ──────────────
+        if (training) {
+            buildClient(apiKey, apiUrl);
+            StartupTraining.exercise(port);
+            pipeline.runUntil(journal.endOffset());
+            pipeline.awaitIdle(30, TimeUnit.SECONDS);
+            System.exit(0);
+        }
 
         // ── Prompt for the tunnel URL ───────────────────────────────────────
         System.out.printf("%nExpose your local server publicly (e.g. ngrok http %d, localhost.run, etc.)%n", port);
@@ -115,18 +311,36 @@ public class WebhookExample {
         BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in));
         String tunnelUrl = stdin.readLine().trim();
 
+        // ── Build Payabli client ────────────────────────────────────────────
+        // Built here rather than at startup: nothing needs it before a tunnel
+        // URL is known, so deliveries are accepted sooner.
+        PayabliApiClient client = buildClient(apiKey, apiUrl);
+
         // ── Verify the tunnel is reachable ─────────────────────────────────
         testTunnel(tunnelUrl);
 
         // ── Register the ApprovedPayment webhook with Payabli ───────────────
-        createWebhookNotification(client, tunnelUrl, ownerId);
+        // Reconciled against the owner's existing notifications and a local
+        // record, so restarts reuse the registration instead of adding one
+        // more; registrations for an old tunnel URL are removed.
+        NotificationReconciler reconciler = new NotificationReconciler(notificationApi(client),
+                Paths.get(setting(dotenv, "WEBHOOK_NOTIFICATION_STATE", "webhook-notifications.properties")));
+        reconciler.desire(Set.of(new NotificationReconciler.Registration(ownerId, "ApprovedPayment", webhookTarget(tunnelUrl))));
+        System.out.println("\nReconciling webhook notifications with Payabli...");
+        reconciler.reconcile();
+        reconciler.schedule(Long.parseLong(setting(dotenv, "WEBHOOK_NOTIFICATION_RECONCILE_MINUTES", "15")));
+        stats.register("notifications_recorded", reconciler::recordedCount)
+             .register("notifications_added_total", reconciler::added)
+             .register("notifications_adopted_total", reconciler::adopted)
+             .register("notifications_removed_total", reconciler::removed)
+             .register("notifications_reconcile_errors_total", reconciler::errors);
 
         // ── Wait for confirmation before sending a live transaction ─────────
         System.out.print("\nPress ENTER to trigger a test transaction and generate a webhook (or Ctrl+C to exit)...");
         stdin.readLine();
 
-        // Discard anything that arrived before the transaction (e.g. the tunnel test ping).
-        webhookQueue.clear();
+        // Skip anything that arrived before the transaction (e.g. the tunnel test ping).
+        pipeline.skipToEnd();
 
         // ── Fire a $1.00 test transaction ───────────────────────────────────
         triggerTransaction(client, entrypoint);
@@ -137,12 +351,7 @@ public class WebhookExample {
 
         // ── Block indefinitely, printing each webhook payload as it arrives ──
         try {
-            while (true) {
-                String payload = webhookQueue.take();
-                System.out.printf("%nReceived webhook payload:%n%s%n",
-                        payload.isEmpty() ? "(empty body)" : payload);
-                System.out.flush();
-            }
+            pipeline.run();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -150,6 +359,38 @@ public class WebhookExample {
 
     // ── Helpers ────────────────────────────────────────────────────────────────
 
+    private static PayabliApiClient buildClient(String apiKey, String apiUrl) {
+        return new PayabliApiClientBuilder()
+                .apiKey(apiKey)
+                .environment(apiUrl.isEmpty() ? Environment.SANDBOX : Environment.custom(apiUrl))
+                .build();
+    }
+
+    /**
+     * Log one non-duplicate webhook payload, route it on its event type and
+     * queue it for the downstream sinks. Runs on a consumer lane. The journal
+     * offset and transaction ID go in the MDC, so every line logged for the
+     * event carries them.
+     */
+    private static void deliver(WebhookEvent event, boolean parsed, WebhookJournal.Entry entry) {
+        MDC.put("offset", Long.toString(entry.offset()));
+        if (parsed && event.transactionId().length() > 0) {
+            MDC.put("transId", event.transactionId().toString());
+        }
+        try {
+            if (logger.isInfoEnabled()) {
+                String payload = entry.utf8();
+                logger.atInfo().addKeyValue("payload", payload.isEmpty() ? "(empty body)" : payload)
+                        .log("Received webhook payload");
+            }
+            if (parsed) router.dispatch(event);
+            if (fanout != null) fanout.accept(event, parsed, entry);
+        } finally {
+            MDC.remove("offset");
+            MDC.remove("transId");
+        }
+    }
+
     /** POST a small test payload to the tunnel to confirm it is live. */
     private static void testTunnel(String tunnelUrl) {
         String base = tunnelUrl.replaceAll("/$", "");
@@ -165,55 +406,99 @@ public class WebhookExample {
                     .build();
             HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
             System.out.printf("Tunnel test response: HTTP %d%n", resp.statusCode());
+            if (resp.statusCode() == 401 || resp.statusCode() == 403) {
+                System.out.println("The tunnel is reachable; the unsigned test ping was refused by webhook authentication.");
+            }
         } catch (Exception e) {
             System.err.printf("Tunnel test FAILED - tunnel may not be running or URL is wrong: %s%n",
                     e.getMessage());
         }
     }
 
-    /** Register an ApprovedPayment webhook notification with Payabli. */
-    private static void createWebhookNotification(PayabliApiClient client,
-                                                   String tunnelUrl,
-                                                   int ownerId) {
+    /** The {@code /webhook} URL behind a tunnel URL, with or without the path already on it. */
+    private static String webhookTarget(String tunnelUrl) {
         String webhookUrl = tunnelUrl.replaceAll("/$", "");
         if (webhookUrl.endsWith("/webhook")) {
             webhookUrl = webhookUrl.substring(0, webhookUrl.length() - 8);
         }
-        webhookUrl = webhookUrl + "/webhook";
-        System.out.println("\nRegistering webhook notification with Payabli...");
-        System.out.printf("Notification request: Target=%s, OwnerId=%d%n", webhookUrl, ownerId);
-        try {
-            PayabliApiResponseNotifications res = client.notification().addNotification(
-                AddNotificationRequest.of(
-                    NotificationStandardRequest.builder()
-                        .frequency(NotificationStandardRequestFrequency.UNTILCANCELLED)
-                        .method(NotificationStandardRequestMethod.WEB)
-                        .ownerType(0)
-                        .target(webhookUrl)
-                        .content(java.util.Optional.of(
-                            NotificationStandardRequestContent.builder()
-                                .eventType(java.util.Optional.of(
-                                    NotificationStandardRequestContentEventType.APPROVED_PAYMENT))
-                                .build()
-                        ))
-                        .ownerId(java.util.Optional.of(ownerId))
-                        .status(java.util.Optional.of(1))
-                        .build()
-                )
-            );
-            boolean isSuccess = Boolean.TRUE.equals(res.getIsSuccess().orElse(false));
-            System.out.printf("Webhook registered: IsSuccess=%b, ResponseCode=%s, NotificationId=%s%n",
-                    isSuccess,
-                    res.getResponseCode().map(Object::toString).orElse(""),
-                    res.getResponseData().map(Object::toString).orElse(""));
-            if (!isSuccess) {
-                System.err.printf("WARNING: Notification registration failed \u2014 ResponseText: %s%n",
-                        res.getResponseText());
-                System.err.println("No webhook will be delivered. Check your PAYABLI_KEY, OWNER_ID, and PAYABLI_ENTRY.");
+        return webhookUrl + "/webhook";
+    }
+
+    /** The notification calls the reconciler makes, timed like every other API call. */
+    private static NotificationReconciler.Remote notificationApi(PayabliApiClient client) {
+        return new NotificationReconciler.Remote() {
+            @Override
+            public List<NotificationReconciler.Existing> list(int ownerId) {
+                // Every page, so a duplicate past the first is still seen.
+                final int page = 1000;
+                List<NotificationReconciler.Existing> existing = new ArrayList<>();
+                for (int from = 0; ; from += page) {
+                    final int fromRecord = from;
+                    var res = apiMetrics.time("listNotificationsOrg", () -> client.query().listNotificationsOrg(ownerId,
+                            ListNotificationsOrgRequest.builder().fromRecord(fromRecord).limitRecord(page).build()));
+                    var records = res.getRecords().orElse(List.of());
+                    for (var record : records) {
+                        existing.add(new NotificationReconciler.Existing(
+                                record.getNotificationId().map(String::valueOf).orElse(""),
+                                record.getContent().flatMap(content -> content.getEventType())
+                                        .map(String::valueOf).orElse(""),
+                                record.getTarget().orElse("")));
+                    }
+                    if (records.size() < page) return existing;
+                }
             }
-        } catch (Exception e) {
-            System.err.printf("Failed to register webhook: %s%n", e.getMessage());
+
+            @Override
+            public String add(NotificationReconciler.Registration registration) {
+                return createWebhookNotification(client, registration);
+            }
+
+            @Override
+            public void remove(String notificationId) {
+                PayabliApiResponseNotifications res = apiMetrics.time("deleteNotification",
+                        () -> client.notification().deleteNotification(notificationId));
+                if (!Boolean.TRUE.equals(res.getIsSuccess().orElse(false))) {
+                    throw new IllegalStateException("ResponseText: " + res.getResponseText());
+                }
+            }
+        };
+    }
+
+    /** Register an ApprovedPayment webhook notification with Payabli and return its ID. */
+    private static String createWebhookNotification(PayabliApiClient client,
+                                                    NotificationReconciler.Registration registration) {
+        if (!"ApprovedPayment".equals(registration.eventType())) {
+            throw new IllegalArgumentException("Only ApprovedPayment notifications are registered: " + registration);
+        }
+        System.out.printf("Notification request: Target=%s, OwnerId=%d%n", registration.target(), registration.ownerId());
+        PayabliApiResponseNotifications res = apiMetrics.time("addNotification", () -> client.notification().addNotification(
+            AddNotificationRequest.of(
+                NotificationStandardRequest.builder()
+                    .frequency(NotificationStandardRequestFrequency.UNTILCANCELLED)
+                    .method(NotificationStandardRequestMethod.WEB)
+                    .ownerType(0)
+                    .target(registration.target())
+                    .content(java.util.Optional.of(
+                        NotificationStandardRequestContent.builder()
+                            .eventType(java.util.Optional.of(
+                                NotificationStandardRequestContentEventType.APPROVED_PAYMENT))
+                            .build()
+                    ))
+                    .ownerId(java.util.Optional.of(registration.ownerId()))
+                    .status(java.util.Optional.of(1))
+                    .build()
+            )
+        ));
+        boolean isSuccess = Boolean.TRUE.equals(res.getIsSuccess().orElse(false));
+        System.out.printf("Webhook registered: IsSuccess=%b, ResponseCode=%s, NotificationId=%s%n",
+                isSuccess,
+                res.getResponseCode().map(Object::toString).orElse(""),
+                res.getResponseData().map(Object::toString).orElse(""));
+        if (!isSuccess) {
+            System.err.println("No webhook will be delivered. Check your PAYABLI_KEY, OWNER_ID, and PAYABLI_ENTRY.");
+            throw new IllegalStateException("ResponseText: " + res.getResponseText());
         }
+        return res.getResponseData().map(Object::toString).orElse("");
     }
 
     /**
@@ -224,7 +509,7 @@ public class WebhookExample {
         System.out.println("\nTriggering a test transaction to generate webhook...");
         System.out.printf("Transaction request: EntryPoint=%s, Amount=1.00%n", entrypoint);
         try {
-            var resp = client.moneyIn().getpaidv2(
+            var resp = apiMetrics.time("getpaidv2", () -> client.moneyIn().getpaidv2(
                 RequestPaymentV2.builder()
                     .body(TransRequestBody.builder()
                         .paymentDetails(PaymentDetail.builder()
@@ -249,13 +534,23 @@ public class WebhookExample {
                             .build())
                         .build())
                     .build()
-            );
+            ));
             System.out.printf("Transaction sent (v2 response): %s%n", resp);
         } catch (Exception e) {
             System.err.printf("Failed to trigger transaction: %s%n", e.getMessage());
         }
     }
 
+    /** Splits a comma-separated setting, dropping blanks. */
+    private static List<String> csv(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).filter(v -> !v.isEmpty()).toList();
+    }
+
+    /** Reads a setting from .env, then the environment, then the fallback. */
+    private static String setting(Dotenv dotenv, String name, String fallback) {
+        return firstNonNull(dotenv.get(name), System.getenv(name), fallback);
+    }
+
     /** Returns the first non-null value from the provided candidates. */
     private static String firstNonNull(String... candidates) {
         for (String s : candidates) {
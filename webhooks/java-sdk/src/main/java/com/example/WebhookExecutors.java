@@ -0,0 +1,102 @@
+package com.example;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor strategies for the webhook {@code HttpServer}, selected with
+ * {@code WEBHOOK_EXECUTOR}.
+ *
+ * <ul>
+ *   <li>{@code virtual} — one virtual thread per exchange; blocking I/O parks
+ *       the virtual thread instead of pinning a platform thread.</li>
+ *   <li>{@code bounded} — a platform pool with a bounded queue. When both are
+ *       full the exchange is run on the dispatcher thread in shedding mode and
+ *       {@link WebhookHandler} answers 503 with {@code Retry-After}.</li>
+ *   <li>{@code fixed} — a fixed platform pool with an unbounded queue.</li>
+ * </ul>
+ */
+public final class WebhookExecutors {
+
+    public enum Mode {
+        VIRTUAL, BOUNDED, FIXED;
+
+        public static Mode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                        "WEBHOOK_EXECUTOR must be one of virtual, bounded, fixed (got '" + value + "')");
+            }
+        }
+    }
+
+    private static final ThreadLocal<Boolean> SHEDDING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final AtomicLong shed = new AtomicLong();
+
+    private WebhookExecutors() {}
+
+    /**
+     * @param mode          executor strategy
+     * @param threads       pool size for {@code bounded} and {@code fixed}; ignored for {@code virtual}
+     * @param queueCapacity queued exchanges allowed before {@code bounded} starts shedding
+     */
+    public static ExecutorService create(Mode mode, int threads, int queueCapacity) {
+        switch (mode) {
+            case VIRTUAL:
+                return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("webhook-", 0).factory());
+            case BOUNDED:
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                        30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                        platformThreads("webhook-bounded-"),
+                        (task, executor) -> runShedding(task));
+                pool.allowCoreThreadTimeOut(true);
+                return pool;
+            case FIXED:
+                return Executors.newFixedThreadPool(threads, platformThreads("webhook-fixed-"));
+            default:
+                throw new IllegalArgumentException("Unknown executor mode: " + mode);
+        }
+    }
+
+    /** True while the current thread is running an exchange the pool rejected. */
+    static boolean isShedding() {
+        return SHEDDING.get();
+    }
+
+    /** Exchanges answered with 503 because the bounded pool was saturated. */
+    public static long shedCount() {
+        return shed.get();
+    }
+
+    /**
+     * Runs a rejected exchange inline. The handler sees the shedding flag and
+     * only writes a 503 header, so the dispatcher thread is held for
+     * microseconds rather than for the full request.
+     */
+    private static void runShedding(Runnable task) {
+        shed.incrementAndGet();
+        SHEDDING.set(Boolean.TRUE);
+        try {
+            task.run();
+        } finally {
+            SHEDDING.set(Boolean.FALSE);
+        }
+    }
+
+    private static ThreadFactory platformThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,291 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forwards consumed events to several {@link WebhookSink}s at once.
+ *
+ * <p>Each sink gets its own bounded queue and delivery thread. The thread
+ * sends a batch once it holds {@code batchEvents} events or its oldest event
+ * has waited {@code batchMillis}. A failed batch is retried with jittered
+ * exponential backoff while new events queue behind it; after
+ * {@code maxAttempts} it is counted as failed and logged, and retried at the
+ * longest backoff until it goes through or the fanout is closed.
+ *
+ * <p>No event is lost. Each stays in {@link #unfinishedFrom} until
+ * every sink has written it, and the consumer does not commit past it, so
+ * anything unsent when the process stops is delivered again on the next
+ * start. A sink whose queue is full blocks the consumer lane offering to it,
+ * which raises consumer pressure until intake is shed.
+ *
+ * <p>Payloads are copied off the journal once per event and the copy is
+ * shared by every sink, so the consumer lane returns as soon as the event is
+ * queued.
+ */
+public final class WebhookFanout implements WebhookConsumerPipeline.EventSink, StatsHandler.Source {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookFanout.class);
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final Set<String> eventTypes;
+    private final List<Channel> channels = new ArrayList<>();
+    private final int batchEvents;
+    private final long batchNanos;
+    private final int maxAttempts;
+    private final long retryMillis;
+    // Offsets handed to the sinks, each with the number of sinks yet to write it.
+    private final ConcurrentSkipListMap<Long, Integer> inFlight = new ConcurrentSkipListMap<>();
+    private volatile Runnable onDelivered = () -> { };
+
+    /**
+     * @param eventTypes  event types to forward; empty forwards everything, unparsed payloads included
+     * @param queueEvents events each sink may have waiting
+     * @param batchEvents most events per write
+     * @param batchMillis longest an event waits for its batch to fill
+     * @param maxAttempts tries per batch before it is reported as failed
+     * @param retryMillis backoff before the first retry; doubles each attempt
+     */
+    public WebhookFanout(List<WebhookSink> sinks, Set<String> eventTypes, int queueEvents,
+                         int batchEvents, long batchMillis, int maxAttempts, long retryMillis) {
+        this.eventTypes = eventTypes;
+        this.batchEvents = Math.max(1, batchEvents);
+        this.batchNanos = TimeUnit.MILLISECONDS.toNanos(batchMillis);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryMillis = Math.max(1, retryMillis);
+        for (WebhookSink sink : sinks) {
+            channels.add(new Channel(sink, queueEvents));
+        }
+        for (Channel channel : channels) {
+            channel.thread.start();
+        }
+    }
+
+    @Override
+    public void accept(WebhookEvent event, boolean parsed, WebhookJournal.Entry entry) {
+        if (!eventTypes.isEmpty() && !(parsed && matches(event))) return;
+        ByteBuffer payload = entry.payload();
+        byte[] copy = new byte[payload.remaining()];
+        payload.get(copy);
+        WebhookJournal.Entry owned = new WebhookJournal.Entry(entry.offset(), entry.nextOffset(),
+                entry.timestampMillis(), ByteBuffer.wrap(copy).asReadOnlyBuffer());
+        // Held before it is queued, so the consumer cannot commit past it.
+        inFlight.merge(owned.offset(), channels.size(), Integer::sum);
+        for (Channel channel : channels) {
+            if (!channel.offer(owned)) return;
+        }
+    }
+
+    /**
+     * Lowest journal offset some sink has not yet written, or
+     * {@code Long.MAX_VALUE} when every sink is caught up.
+     */
+    public long unfinishedFrom() {
+        Map.Entry<Long, Integer> first = inFlight.firstEntry();
+        return first == null ? Long.MAX_VALUE : first.getKey();
+    }
+
+    /** Runs after each batch a sink writes, so the consumer can commit further. */
+    public void onDelivered(Runnable onDelivered) {
+        this.onDelivered = onDelivered;
+    }
+
+    private void release(List<WebhookJournal.Entry> batch) {
+        for (WebhookJournal.Entry entry : batch) {
+            inFlight.computeIfPresent(entry.offset(), (offset, sinks) -> sinks == 1 ? null : sinks - 1);
+        }
+        onDelivered.run();
+    }
+
+    private boolean matches(WebhookEvent event) {
+        for (String type : eventTypes) {
+            if (event.isEventType(type)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stops taking events and gives every sink until the timeout to send what
+     * it has queued. Whatever is left after that is counted as dropped; it
+     * was never committed, so it is delivered again on the next start.
+     */
+    public void close(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Channel channel : channels) {
+            channel.closing = true;
+        }
+        for (Channel channel : channels) {
+            TimeUnit.NANOSECONDS.timedJoin(channel.thread, Math.max(1, deadline - System.nanoTime()));
+            if (channel.thread.isAlive()) {
+                channel.abandoned = true;
+                channel.thread.interrupt();
+                channel.thread.join();
+            }
+        }
+    }
+
+    @Override
+    public void appendTo(StringBuilder out) {
+        long now = System.currentTimeMillis();
+        for (Channel channel : channels) {
+            String label = "sink=\"" + channel.sink.name().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+            String labels = "{" + label + "} ";
+            out.append("sink_events_total").append(labels).append(channel.delivered.get()).append('\n')
+               .append("sink_bytes_total").append(labels).append(channel.bytes.get()).append('\n')
+               .append("sink_batches_total").append(labels).append(channel.batches.get()).append('\n')
+               .append("sink_retries_total").append(labels).append(channel.retries.get()).append('\n')
+               .append("sink_failed_total").append(labels).append(channel.failed.get()).append('\n')
+               .append("sink_dropped_total").append(labels).append(channel.dropped.get()).append('\n')
+               .append("sink_queued").append(labels).append(channel.queued()).append('\n')
+               .append("sink_lag_ms").append(labels).append(channel.lagMillis(now)).append('\n');
+            channel.writes.appendPrometheus(out, "sink_write_seconds", label);
+        }
+    }
+
+    /** One sink's queue, delivery thread and counters. */
+    private final class Channel implements Runnable {
+        final WebhookSink sink;
+        final ArrayBlockingQueue<WebhookJournal.Entry> queue;
+        final Thread thread;
+        final LatencyHistogram writes = new LatencyHistogram();
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong batches = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+
+        volatile boolean closing;
+        // Set when close() runs out of time; stops retries even if the sink swallowed the interrupt.
+        volatile boolean abandoned;
+        // Receipt time of the oldest event taken off the queue but not yet sent, or 0.
+        volatile long pendingSinceMillis;
+        volatile int pending;
+
+        Channel(WebhookSink sink, int capacity) {
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+            this.thread = new Thread(this, "webhook-sink-" + sink.name());
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Queues {@code entry}, waiting for room when the queue is full.
+         * Returns false, leaving the entry uncommitted, if the fanout is
+         * closing or the lane is interrupted.
+         */
+        boolean offer(WebhookJournal.Entry entry) {
+            try {
+                if (!closing) {
+                    queue.put(entry);
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        int queued() {
+            return queue.size() + pending;
+        }
+
+        long lagMillis(long now) {
+            long since = pendingSinceMillis;
+            if (since == 0) {
+                WebhookJournal.Entry head = queue.peek();
+                if (head == null) return 0;
+                since = head.timestampMillis();
+            }
+            return Math.max(0, now - since);
+        }
+
+        @Override
+        public void run() {
+            List<WebhookJournal.Entry> batch = new ArrayList<>(batchEvents);
+            try {
+                while (!(closing && queue.isEmpty())) {
+                    WebhookJournal.Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    pendingSinceMillis = first.timestampMillis();
+                    long deadline = System.nanoTime() + batchNanos;
+                    while (batch.size() < batchEvents) {
+                        WebhookJournal.Entry next = closing
+                                ? queue.poll()
+                                : queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) break;
+                        batch.add(next);
+                    }
+                    pending = batch.size();
+                    send(batch);
+                    batch.clear();
+                    pending = 0;
+                    pendingSinceMillis = 0;
+                }
+            } catch (InterruptedException e) {
+                dropped.addAndGet(batch.size() + queue.size());
+                queue.clear();
+                pending = 0;
+            } finally {
+                try {
+                    sink.close();
+                } catch (IOException e) {
+                    logger.atWarn().addKeyValue("sink", sink.name()).log("Could not close sink: {}", e.getMessage());
+                }
+            }
+        }
+
+        private void send(List<WebhookJournal.Entry> batch) throws InterruptedException {
+            long backoff = retryMillis;
+            for (int attempt = 1; ; attempt++) {
+                long start = System.nanoTime();
+                try {
+                    sink.write(batch);
+                    writes.record(System.nanoTime() - start);
+                    long size = 0;
+                    for (WebhookJournal.Entry entry : batch) size += entry.length();
+                    bytes.addAndGet(size);
+                    delivered.addAndGet(batch.size());
+                    batches.incrementAndGet();
+                    release(batch);
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    writes.record(System.nanoTime() - start);
+                    if (abandoned) throw new InterruptedException();
+                    retries.incrementAndGet();
+                    if (attempt >= maxAttempts) backoff = MAX_BACKOFF_MILLIS;
+                    long sleep = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                    if (attempt == maxAttempts) {
+                        // Still held uncommitted; keep trying rather than lose it.
+                        failed.addAndGet(batch.size());
+                        logger.atError().addKeyValue("sink", sink.name()).addKeyValue("offset", batch.get(0).offset())
+                                .log("Sink still failing on {} events after {} attempts; retrying up to {} s apart "
+                                        + "until it succeeds: {}", batch.size(), attempt, MAX_BACKOFF_MILLIS / 1000,
+                                        e.getMessage());
+                    } else if (attempt < maxAttempts) {
+                        logger.atWarn().addKeyValue("sink", sink.name()).addKeyValue("offset", batch.get(0).offset())
+                                .log("Sink write failed (attempt {} of {}), retrying in {} ms: {}",
+                                        attempt, maxAttempts, sleep, e.getMessage());
+                    }
+                    Thread.sleep(sleep);
+                    backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Root HTTP handler: journals {@code POST /webhook} bodies, answers {@code GET}
+ * with a liveness string, and 404s everything else.
+ *
+ * <p>With a {@link BufferPool} the body is read into a pooled buffer and
+ * journaled as raw bytes; nothing is decoded until a consumer asks for it.
+ * Without one, each body is read with {@code readAllBytes()} as before.
+ *
+ * <p>With a {@link WebhookAuthenticator}, a delivery from outside the
+ * allowlist or without a valid header is refused before its body is read,
+ * and an HMAC over the raw bytes is checked before they are journaled.
+ */
+public final class WebhookHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookHandler.class);
+    private static final byte[] GET_RESPONSE = "Payabli Webhook Test".getBytes(StandardCharsets.UTF_8);
+
+    private final WebhookJournal journal;
+    private final BufferPool bufferPool;
+    private final AdmissionController admission;
+    private final WebhookAuthenticator authenticator;
+
+    /**
+     * @param journal    where accepted payloads are appended before the ack
+     * @param bufferPool pooled body buffers, or {@code null} to copy each body into a new array
+     * @param admission  decides per delivery whether to take it, and caps body size
+     */
+    public WebhookHandler(WebhookJournal journal, BufferPool bufferPool, AdmissionController admission) {
+        this(journal, bufferPool, admission, null);
+    }
+
+    /**
+     * @param journal       where accepted payloads are appended before the ack
+     * @param bufferPool    pooled body buffers, or {@code null} to copy each body into a new array
+     * @param admission     decides per delivery whether to take it, and caps body size
+     * @param authenticator source and signature checks, or {@code null} to accept any sender
+     */
+    public WebhookHandler(WebhookJournal journal, BufferPool bufferPool, AdmissionController admission,
+                          WebhookAuthenticator authenticator) {
+        this.journal = journal;
+        this.bufferPool = bufferPool;
+        this.admission = admission;
+        this.authenticator = authenticator;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) {
+        try {
+            // The executor is saturated: refuse without touching the body so
+            // Payabli backs off and retries instead of piling up threads.
+            if (WebhookExecutors.isShedding()) {
+                refuse(exchange, 503);
+                return;
+            }
+
+            String method = exchange.getRequestMethod();
+            String path   = exchange.getRequestURI().getPath();
+
+            // Log every inbound request through the async appender.
+            if (logger.isInfoEnabled()) {
+                logger.info("→ {} {} (Content-Type: {}, User-Agent: {})",
+                        method, path,
+                        exchange.getRequestHeaders().getFirst("Content-Type"),
+                        exchange.getRequestHeaders().getFirst("User-Agent"));
+            }
+
+            if ("POST".equals(method) && "/webhook".equals(path)) {
+                // Forged or unknown senders are cut off on their headers,
+                // before they cost a buffer, an admission slot or a parse.
+                String source = admission.source(exchange);
+                byte[] claimed = null;
+                if (authenticator != null) {
+                    if (!authenticator.allows(source)) {
+                        reject(exchange, 403);
+                        return;
+                    }
+                    if (authenticator.checksHeader() && (claimed = authenticator.claimed(exchange)) == null) {
+                        reject(exchange, 401);
+                        return;
+                    }
+                }
+                // The consumer is behind or this sender has too much in
+                // flight: let Payabli hold the event and retry later.
+                int refusal = admission.admit(source);
+                if (refusal != 0) {
+                    refuse(exchange, refusal);
+                    return;
+                }
+                long offset;
+                int length;
+                try {
+                    int maxBody = admission.maxBodyBytes() > 0 ? admission.maxBodyBytes() : Integer.MAX_VALUE - 8;
+                    String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+                    if (declared != null && Long.parseLong(declared.trim()) > maxBody) {
+                        tooLarge(exchange);
+                        return;
+                    }
+                    // Journal the body before acking; a failed append falls
+                    // through to the 500 below so Payabli retries.
+                    if (bufferPool != null) {
+                        ByteBuffer body = bufferPool.acquire();
+                        try {
+                            ByteBuffer payload = readBody(exchange.getRequestBody(), body, maxBody);
+                            if (payload == null) {
+                                tooLarge(exchange);
+                                return;
+                            }
+                            if (!authentic(payload, claimed)) {
+                                reject(exchange, 401);
+                                return;
+                            }
+                            length = payload.remaining();
+                            offset = journal.append(payload);
+                        } finally {
+                            bufferPool.release(body);
+                        }
+                    } else {
+                        byte[] bodyBytes = exchange.getRequestBody().readNBytes(maxBody + 1);
+                        if (bodyBytes.length > maxBody) {
+                            tooLarge(exchange);
+                            return;
+                        }
+                        if (!authentic(ByteBuffer.wrap(bodyBytes), claimed)) {
+                            reject(exchange, 401);
+                            return;
+                        }
+                        length = bodyBytes.length;
+                        offset = journal.append(bodyBytes);
+                    }
+                } finally {
+                    admission.release(source);
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("[webhook handler] received {} bytes, journaled at offset {}", length, offset);
+                }
+                exchange.sendResponseHeaders(200, 0);
+                exchange.getResponseBody().close();
+            } else if ("GET".equals(method)) {
+                exchange.sendResponseHeaders(200, GET_RESPONSE.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(GET_RESPONSE);
+                }
+            } else {
+                exchange.sendResponseHeaders(404, 0);
+                exchange.getResponseBody().close();
+            }
+        } catch (Exception e) {
+            logger.error("Request handler error: {}", e.getMessage());
+            try {
+                exchange.sendResponseHeaders(500, 0);
+                exchange.getResponseBody().close();
+            } catch (Exception ignored) {}
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void refuse(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", Integer.toString(admission.retryAfterSeconds()));
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    /** 413 without reading the rest of the body. */
+    private void tooLarge(HttpExchange exchange) throws IOException {
+        admission.countTooLarge();
+        reject(exchange, 413);
+    }
+
+    /** Refuses without reading the rest of the body; the connection is not reused. */
+    private static void reject(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Connection", "close");
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private boolean authentic(ByteBuffer payload, byte[] claimed) {
+        return authenticator == null || !authenticator.needsBody() || authenticator.verify(payload, claimed);
+    }
+
+    /**
+     * Reads the whole body into {@code buffer} and returns it flipped, or
+     * {@code null} if it exceeds {@code maxBytes}. A body larger than the
+     * pooled buffer spills into a one-off array.
+     */
+    private static ByteBuffer readBody(InputStream in, ByteBuffer buffer, int maxBytes) throws IOException {
+        byte[] array = buffer.array();
+        // One byte past the limit is enough to tell the body is too large,
+        // even when the pooled buffer is bigger than the limit.
+        int capacity = (int) Math.min(array.length, maxBytes + 1L);
+        int position = 0;
+        int read;
+        while (position < capacity && (read = in.read(array, position, capacity - position)) != -1) {
+            position += read;
+        }
+        if (position > maxBytes) return null;
+        if (position < capacity) {
+            buffer.limit(position);
+            return buffer;
+        }
+        byte[] rest = in.readNBytes(maxBytes - position + 1);
+        if (position + rest.length > maxBytes) return null;
+        if (rest.length == 0) {
+            buffer.limit(position);
+            return buffer;
+        }
+        byte[] spilled = Arrays.copyOf(array, position + rest.length);
+        System.arraycopy(rest, 0, spilled, position, rest.length);
+        return ByteBuffer.wrap(spilled);
+    }
+}
@@ -0,0 +1,489 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only journal of webhook payloads backed by memory-mapped
+ * segment files.
+ *
+ * <p>The {@code /webhook} handler appends each body and acks as soon as the
+ * bytes are in the mapped page cache, so a process crash never loses an
+ * acknowledged event. {@link MappedByteBuffer#force()} is batched: every
+ * {@code fsyncBatch} appends and on a background timer, which bounds what an
+ * OS crash or power loss can take with it.
+ *
+ * <p>Each record is laid out as {@code [int recordSize][int crc32][long timestampMillis][payload]},
+ * where {@code recordSize} includes the header so it is never zero; a zero
+ * marks the end of a segment.
+ * Offsets are logical byte positions across all segments; a segment file is
+ * named after the offset of its first record, so offsets stay stable as old
+ * segments are deleted by size-based retention. The consumer offset lives in
+ * its own small mapped file and survives restarts.
+ */
+public final class WebhookJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookJournal.class);
+
+    private static final int HEADER_BYTES = 4 + 4 + 8;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String OFFSET_FILE = "consumer.offset";
+
+    /** Journal settings, normally read from {@code .env}. */
+    public static final class Config {
+        final Path directory;
+        final int segmentBytes;
+        final int fsyncBatch;
+        final long fsyncIntervalMillis;
+        final long retainBytes;
+
+        /**
+         * @param directory           where segment and offset files are kept
+         * @param segmentBytes        size of each pre-allocated segment file
+         * @param fsyncBatch          force to disk after this many appends (1 = every append)
+         * @param fsyncIntervalMillis also force on this timer; 0 disables the timer
+         * @param retainBytes         delete consumed segments once the journal exceeds this size
+         */
+        public Config(Path directory, int segmentBytes, int fsyncBatch,
+                      long fsyncIntervalMillis, long retainBytes) {
+            if (segmentBytes <= HEADER_BYTES) {
+                throw new IllegalArgumentException("segmentBytes must exceed " + HEADER_BYTES);
+            }
+            this.directory = directory;
+            this.segmentBytes = segmentBytes;
+            this.fsyncBatch = Math.max(1, fsyncBatch);
+            this.fsyncIntervalMillis = fsyncIntervalMillis;
+            this.retainBytes = retainBytes;
+        }
+    }
+
+    /** A single journaled webhook payload. */
+    public static final class Entry {
+        private final long offset;
+        private final long nextOffset;
+        private final long timestampMillis;
+        private final ByteBuffer payload;
+
+        Entry(long offset, long nextOffset, long timestampMillis, ByteBuffer payload) {
+            this.offset = offset;
+            this.nextOffset = nextOffset;
+            this.timestampMillis = timestampMillis;
+            this.payload = payload;
+        }
+
+        public long offset()          { return offset; }
+        public long nextOffset()      { return nextOffset; }
+        public long timestampMillis() { return timestampMillis; }
+
+        /** Read-only view of the payload, straight from the mapped segment. */
+        public ByteBuffer payload()   { return payload.duplicate(); }
+
+        public int length()           { return payload.remaining(); }
+
+        /** Decodes the payload as UTF-8. */
+        public String utf8() {
+            return StandardCharsets.UTF_8.decode(payload.duplicate()).toString();
+        }
+    }
+
+    private static final class Segment {
+        final long baseOffset;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+
+        Segment(long baseOffset, Path path, int size) throws IOException {
+            this.baseOffset = baseOffset;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private final Config config;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition appended = writeLock.newCondition();
+    private final CRC32 crc = new CRC32();
+    private final FileChannel offsetChannel;
+    private final MappedByteBuffer offsetBuffer;
+    private final ScheduledExecutorService flusher;
+
+    private volatile Segment active;
+    private int writePosition;
+    private int unflushed;
+    private volatile long endOffset;
+    private volatile boolean closed;
+
+    private WebhookJournal(Config config) throws IOException {
+        this.config = config;
+        Files.createDirectories(config.directory);
+
+        offsetChannel = FileChannel.open(config.directory.resolve(OFFSET_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        offsetBuffer = offsetChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+
+        recover();
+
+        if (config.fsyncIntervalMillis > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "webhook-journal-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, config.fsyncIntervalMillis,
+                    config.fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /** Opens (or creates) the journal, recovering the write position after a crash. */
+    public static WebhookJournal open(Config config) throws IOException {
+        return new WebhookJournal(config);
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(config.directory)) {
+            listing.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).forEach(files::add);
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            // Keep existing segments whole even if the configured size has since shrunk.
+            int size = (int) Math.max(config.segmentBytes, Files.size(file));
+            segments.put(base, new Segment(base, file, size));
+        }
+
+        if (segments.isEmpty()) {
+            active = createSegment(0L);
+            writePosition = 0;
+        } else {
+            active = segments.lastEntry().getValue();
+            writePosition = scanValidEnd(active.buffer);
+            // Clear whatever a torn write left behind so readers stop here.
+            if (writePosition + 4 <= active.buffer.capacity()) {
+                active.buffer.putInt(writePosition, 0);
+            }
+        }
+        endOffset = active.baseOffset + writePosition;
+
+        long committed = offsetBuffer.getLong(0);
+        long first = segments.firstKey();
+        if (committed < first || committed > endOffset) {
+            offsetBuffer.putLong(0, Math.max(first, Math.min(committed, endOffset)));
+        }
+    }
+
+    /** Returns the position just past the last record whose checksum is intact. */
+    private int scanValidEnd(MappedByteBuffer buffer) {
+        int position = 0;
+        CRC32 check = new CRC32();
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position) - HEADER_BYTES;
+            if (length < 0 || position + HEADER_BYTES + length > buffer.capacity()) break;
+            ByteBuffer body = buffer.duplicate();
+            body.position(position + HEADER_BYTES).limit(position + HEADER_BYTES + length);
+            check.reset();
+            check.update(body);
+            if ((int) check.getValue() != buffer.getInt(position + 4)) break;
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private Segment createSegment(long baseOffset) throws IOException {
+        Path path = config.directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+        Segment segment = new Segment(baseOffset, path, config.segmentBytes);
+        segments.put(baseOffset, segment);
+        return segment;
+    }
+
+    /**
+     * Appends one payload and returns its offset. Returns once the bytes are
+     * in the mapped segment, forcing to disk first if this append completes a
+     * fsync batch.
+     *
+     * @throws IllegalArgumentException if the payload cannot fit in a single segment
+     */
+    public long append(byte[] payload) throws IOException {
+        return append(ByteBuffer.wrap(payload));
+    }
+
+    /** Appends the remaining bytes of {@code payload} without consuming it. */
+    public long append(ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        if (HEADER_BYTES + length > config.segmentBytes) {
+            throw new IllegalArgumentException("Payload of " + length + " bytes cannot be journaled");
+        }
+        writeLock.lock();
+        try {
+            if (closed) throw new IOException("Journal is closed");
+            if (writePosition + HEADER_BYTES + length > config.segmentBytes) {
+                roll();
+            }
+            long offset = active.baseOffset + writePosition;
+            MappedByteBuffer buffer = active.buffer;
+
+            crc.reset();
+            crc.update(payload.duplicate());
+            ByteBuffer target = buffer.duplicate();
+            target.position(writePosition + HEADER_BYTES);
+            target.put(payload.duplicate());
+            buffer.putLong(writePosition + 8, System.currentTimeMillis());
+            buffer.putInt(writePosition + 4, (int) crc.getValue());
+            // The size goes in last: a non-zero size marks a complete record.
+            buffer.putInt(writePosition, HEADER_BYTES + length);
+
+            writePosition += HEADER_BYTES + length;
+            if (writePosition + 4 <= config.segmentBytes) {
+                buffer.putInt(writePosition, 0);
+            }
+            endOffset = active.baseOffset + writePosition;
+
+            if (++unflushed >= config.fsyncBatch) {
+                buffer.force();
+                offsetBuffer.force();
+                unflushed = 0;
+            }
+            appended.signalAll();
+            return offset;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        active.buffer.force();
+        long nextBase = active.baseOffset + writePosition;
+        active = createSegment(nextBase);
+        writePosition = 0;
+        unflushed = 0;
+        enforceRetention();
+    }
+
+    /** Deletes the oldest fully-consumed segments while the journal is over its size budget. */
+    private void enforceRetention() {
+        long committed = committedOffset();
+        while (segments.size() > 1
+                && (long) segments.size() * config.segmentBytes > config.retainBytes) {
+            Map.Entry<Long, Segment> oldest = segments.firstEntry();
+            Long nextBase = segments.higherKey(oldest.getKey());
+            if (nextBase == null || nextBase > committed) break;
+            segments.remove(oldest.getKey());
+            oldest.getValue().close();
+            try {
+                Files.deleteIfExists(oldest.getValue().path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete journal segment {}: {}", oldest.getValue().path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Forces written records and the consumer offset to disk. Runs outside the
+     * write lock so a slow fsync never stalls the handler's append.
+     */
+    public void flush() {
+        if (closed) return;
+        active.buffer.force();
+        offsetBuffer.force();
+    }
+
+    /** Offset of the oldest record still retained. */
+    public long startOffset() { return segments.firstKey(); }
+
+    /** Offset one past the newest record. */
+    public long endOffset() { return endOffset; }
+
+    /** Offset the consumer has processed up to, as persisted across restarts. */
+    public long committedOffset() {
+        return offsetBuffer.getLong(0);
+    }
+
+    /** Records that every record before {@code offset} has been processed. */
+    public void commit(long offset) {
+        offsetBuffer.putLong(0, offset);
+    }
+
+    /**
+     * Offset of the first retained record written at or after
+     * {@code timestampMillis}, or {@link #endOffset()} if there is none.
+     * Segments are skipped on their first record's timestamp, then the
+     * matching one is scanned.
+     */
+    public long offsetAt(long timestampMillis) {
+        long position = startOffset();
+        for (Segment segment : segments.descendingMap().values()) {
+            if (segment.buffer.getInt(0) > 0 && segment.buffer.getLong(8) <= timestampMillis) {
+                position = segment.baseOffset;
+                break;
+            }
+        }
+        for (Entry entry = read(position); entry != null; entry = read(entry.nextOffset())) {
+            if (entry.timestampMillis() >= timestampMillis) return entry.offset();
+        }
+        return endOffset;
+    }
+
+    /** A cursor positioned at the committed consumer offset. */
+    public Cursor consumer() {
+        return new Cursor(committedOffset());
+    }
+
+    /**
+     * Offset of the first retained record at or after {@code offset}, or
+     * {@link #endOffset()} if there is none. An offset inside a record is
+     * moved to the start of the next one, found by scanning its segment from
+     * the first record, so a reader never frames payload bytes as a header.
+     */
+    public long recordAt(long offset) {
+        long start = startOffset();
+        if (offset <= start) return start;
+        if (offset >= endOffset) return endOffset;
+        Long base = segments.floorKey(offset);
+        for (Entry entry = read(base == null ? start : base); entry != null; entry = read(entry.nextOffset())) {
+            if (entry.offset() >= offset) return entry.offset();
+        }
+        return endOffset;
+    }
+
+    /** A cursor positioned at the first record at or after {@code offset}, within the retained range. */
+    public Cursor reader(long offset) {
+        return new Cursor(recordAt(offset));
+    }
+
+    /**
+     * Reads the record at {@code position}, or returns {@code null} if none
+     * has been written there yet. Skips across segment boundaries. A record
+     * whose checksum does not match ends its segment: the rest of it cannot
+     * be framed, so reading resumes at the next segment.
+     *
+     * @throws IllegalStateException if that record is in the newest segment
+     */
+    private Entry read(long position) {
+        while (position < endOffset) {
+            Map.Entry<Long, Segment> floor = segments.floorEntry(position);
+            if (floor == null) return null;
+            Segment segment = floor.getValue();
+            int local = (int) (position - segment.baseOffset);
+            int size = local + 4 <= segment.buffer.capacity() ? segment.buffer.getInt(local) : 0;
+            if (size <= 0) {
+                // End of a sealed segment: the next one starts exactly here.
+                Long next = segments.higherKey(segment.baseOffset);
+                if (next == null || next != position) return null;
+                continue;
+            }
+            int length = size - HEADER_BYTES;
+            if (length >= 0 && local + size <= segment.buffer.capacity()) {
+                ByteBuffer body = segment.buffer.duplicate();
+                body.position(local + HEADER_BYTES).limit(local + size);
+                CRC32 check = new CRC32();
+                check.update(body.duplicate());
+                if ((int) check.getValue() == segment.buffer.getInt(local + 4)) {
+                    return new Entry(position, position + size, segment.buffer.getLong(local + 8),
+                            body.slice().asReadOnlyBuffer());
+                }
+            }
+            Long next = segments.higherKey(segment.baseOffset);
+            if (next == null) {
+                throw new IllegalStateException("Journal record at offset " + position + " fails its checksum");
+            }
+            logger.atError().addKeyValue("offset", position)
+                    .log("Journal record fails its checksum; skipping to offset {}", next);
+            position = next;
+        }
+        return null;
+    }
+
+    /** Sequential reader over the journal. Not thread-safe; one per consuming thread. */
+    public final class Cursor {
+        private long position;
+
+        private Cursor(long position) {
+            seek(position);
+        }
+
+        public long position() { return position; }
+
+        /** Moves the cursor, clamping to the retained range. */
+        public void seek(long offset) {
+            position = Math.max(startOffset(), Math.min(offset, endOffset));
+        }
+
+        /** Returns the next record, or {@code null} if the cursor is at the end. */
+        public Entry poll() {
+            if (position < startOffset()) position = startOffset();
+            Entry entry = read(position);
+            if (entry != null) position = entry.nextOffset();
+            return entry;
+        }
+
+        /** Blocks until the next record is available. */
+        public Entry take() throws InterruptedException {
+            Entry entry = poll();
+            while (entry == null) {
+                writeLock.lockInterruptibly();
+                try {
+                    while (position >= endOffset) {
+                        if (closed) throw new InterruptedException("Journal closed");
+                        appended.await();
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
+                entry = poll();
+            }
+            return entry;
+        }
+    }
+
+    /** Forces everything to disk and releases the segment files. */
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            appended.signalAll();
+        } finally {
+            writeLock.unlock();
+        }
+        if (flusher != null) flusher.shutdownNow();
+        offsetBuffer.force();
+        for (Segment segment : segments.values()) segment.close();
+        try {
+            offsetChannel.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,168 @@
+package com.example;
+
+import ch.qos.logback.classic.LoggerContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinated startup readiness and shutdown for the webhook server.
+ *
+ * <p>On shutdown (the JVM hook, e.g. Ctrl+C or SIGTERM) the steps run in
+ * order against one overall deadline:
+ * <ol>
+ *   <li>readiness flips to 503 and new deliveries are answered 503 with
+ *       {@code Retry-After}, then the server keeps listening for
+ *       {@code readinessDelay} so a load balancer can stop routing here;</li>
+ *   <li>the listener closes and in-flight exchanges finish, then the HTTP
+ *       executor stops;</li>
+ *   <li>the consumer lanes drain what is already queued and commit;</li>
+ *   <li>the downstream sinks send what they have queued;</li>
+ *   <li>the journal is forced to disk and closed;</li>
+ *   <li>log lines still queued for the background writer are written.</li>
+ * </ol>
+ * Every acknowledged payload is in the journal before its ack, so anything
+ * the lanes cannot finish before the deadline stays uncommitted and is
+ * delivered on the next start rather than lost.
+ */
+public final class WebhookLifecycle {
+
+    private final long drainNanos;
+    private final long readinessDelayMillis;
+
+    private volatile boolean ready;
+    private volatile boolean draining;
+
+    private WebhookJournal journal;
+    private WebhookConsumerPipeline pipeline;
+    private WebhookFanout fanout;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param drainSeconds         overall deadline for steps 2 to 5
+     * @param readinessDelayMillis how long to keep serving after readiness flips
+     */
+    public WebhookLifecycle(long drainSeconds, long readinessDelayMillis) {
+        this.drainNanos = TimeUnit.SECONDS.toNanos(drainSeconds);
+        this.readinessDelayMillis = readinessDelayMillis;
+    }
+
+    /** Installs the shutdown hook; call once, before opening anything it manages. */
+    public WebhookLifecycle installShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "webhook-shutdown"));
+        return this;
+    }
+
+    public synchronized void manage(WebhookJournal journal) { this.journal = journal; }
+
+    public synchronized void manage(WebhookConsumerPipeline pipeline) { this.pipeline = pipeline; }
+
+    public synchronized void manage(WebhookFanout fanout) { this.fanout = fanout; }
+
+    public synchronized void manage(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /** Marks the server ready once recovery has caught up. */
+    public void ready() {
+        ready = true;
+    }
+
+    /** True from the moment shutdown begins; deliveries should be refused. */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /** {@code GET /ready}: 200 once ready, 503 while starting or draining. */
+    public HttpHandler readinessHandler() {
+        return exchange -> {
+            try {
+                boolean up = ready && !draining;
+                respond(exchange, up ? 200 : 503, up ? "ready" : draining ? "draining" : "starting");
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private synchronized void shutdown() {
+        draining = true;
+        System.out.println("\nShutting down: readiness is now 503, refusing new deliveries");
+        if (server != null && readinessDelayMillis > 0) {
+            sleep(readinessDelayMillis);
+        }
+        long deadline = System.nanoTime() + drainNanos;
+
+        if (server != null) {
+            // Blocks until in-flight exchanges finish or the delay runs out.
+            server.stop((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining(deadline))));
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (pipeline != null) {
+            try {
+                boolean idle = pipeline.awaitIdle(remaining(deadline), TimeUnit.NANOSECONDS);
+                System.out.printf(idle
+                        ? "Consumer drained; committed offset %d%n"
+                        : "Drain deadline reached; events from offset %d will be delivered on the next start%n",
+                        journal != null ? journal.committedOffset() : -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pipeline.close();
+        }
+        if (fanout != null) {
+            try {
+                fanout.close(remaining(deadline), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (journal != null) {
+            journal.flush();
+            journal.close();
+        }
+        // Last, so the lines logged while draining are written too.
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext logging) {
+            logging.stop();
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(response);
+        }
+    }
+}
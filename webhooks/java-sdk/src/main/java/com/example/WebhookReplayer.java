@@ -0,0 +1,230 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-streams a range of journaled webhook payloads into a sink, for
+ * reprocessing after a consumer bug or backfilling a new downstream handler.
+ *
+ * <p>A replay reads the journal through its own cursor, so the live
+ * consumer and its committed offset are untouched, and it bypasses
+ * duplicate suppression: every payload in the range is delivered again, and
+ * the sink must be idempotent. Entries are fanned out to {@code parallelism}
+ * workers hashed by paypoint, as the live consumer does, so each paypoint's
+ * events still arrive in journal order. An optional rate cap paces the
+ * reader so a backfill does not flood downstream systems. Progress and
+ * throughput are logged every five seconds and when the replay ends.
+ */
+public final class WebhookReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookReplayer.class);
+
+    private static final WebhookJournal.Entry END = new WebhookJournal.Entry(-1, -1, 0, null);
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final WebhookJournal journal;
+    private final Map<WebhookEvent.Field, List<String>> aliases;
+    private final WebhookConsumerPipeline.EventSink sink;
+
+    private volatile Replay current;
+
+    public WebhookReplayer(WebhookJournal journal, Map<WebhookEvent.Field, List<String>> aliases,
+                           WebhookConsumerPipeline.EventSink sink) {
+        this.journal = journal;
+        this.aliases = aliases;
+        this.sink = sink;
+    }
+
+    /**
+     * Starts replaying {@code [fromOffset, toOffset)} in the background.
+     *
+     * @param fromOffset   first offset to replay (clamped to what is retained)
+     * @param toOffset     offset to stop at; past the end means "up to what is journaled now"
+     * @param ratePerSecond maximum entries per second, or 0 for no cap
+     * @param parallelism  worker threads; one paypoint always maps to one worker
+     * @throws IllegalStateException if a replay is already running
+     */
+    public synchronized Replay start(long fromOffset, long toOffset, double ratePerSecond, int parallelism) {
+        if (current != null && !current.isDone()) {
+            throw new IllegalStateException("A replay is already running: " + current.progress());
+        }
+        WebhookJournal.Cursor cursor = journal.reader(fromOffset);
+        long end = Math.min(toOffset, journal.endOffset());
+        current = new Replay(cursor, Math.max(cursor.position(), end), ratePerSecond, Math.max(1, parallelism));
+        current.reader.start();
+        return current;
+    }
+
+    /** The running or most recent replay, or {@code null} if none has been started. */
+    public Replay current() {
+        return current;
+    }
+
+    /** One replay run; its counters can be read from any thread. */
+    public final class Replay {
+        private final WebhookJournal.Cursor cursor;
+        private final long fromOffset;
+        private final long toOffset;
+        private final long nanosPerEntry;
+        private final Worker[] workers;
+        private final WebhookEventParser keyParser;
+        private final WebhookEvent keyEvent = new WebhookEvent();
+        private final Thread reader;
+        private final long startedNanos = System.nanoTime();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        private volatile long position;
+        private volatile long finishedNanos;
+        private volatile boolean cancelled;
+
+        private Replay(WebhookJournal.Cursor cursor, long toOffset, double ratePerSecond, int parallelism) {
+            this.cursor = cursor;
+            this.fromOffset = cursor.position();
+            this.toOffset = toOffset;
+            this.position = fromOffset;
+            this.nanosPerEntry = ratePerSecond > 0 ? (long) (1e9 / ratePerSecond) : 0;
+            this.keyParser = new WebhookEventParser(Map.of(WebhookEvent.Field.PAYPOINT,
+                    aliases.getOrDefault(WebhookEvent.Field.PAYPOINT, List.of())));
+            this.workers = new Worker[parallelism];
+            for (int i = 0; i < parallelism; i++) {
+                workers[i] = new Worker(i);
+                workers[i].thread.start();
+            }
+            this.reader = new Thread(this::read, "webhook-replay-reader");
+            this.reader.setDaemon(true);
+        }
+
+        private void read() {
+            long next = System.nanoTime();
+            long nextReport = next + REPORT_INTERVAL_NANOS;
+            try {
+                while (!cancelled && cursor.position() < toOffset) {
+                    if (System.nanoTime() >= nextReport) {
+                        logger.atInfo().addKeyValue("offset", position).log(progress());
+                        nextReport += REPORT_INTERVAL_NANOS;
+                    }
+                    WebhookJournal.Entry entry = cursor.poll();
+                    if (entry == null) break; // retention removed the rest of the range
+                    if (nanosPerEntry > 0) {
+                        long wait = next - System.nanoTime();
+                        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+                        // Never bank more than one second of idle time as burst.
+                        next = Math.max(next, System.nanoTime() - TimeUnit.SECONDS.toNanos(1)) + nanosPerEntry;
+                    }
+                    workers[workerFor(entry)].queue.put(entry);
+                    position = entry.nextOffset();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.atError().addKeyValue("offset", position).log("Replay stopped reading: {}", e.getMessage());
+            } finally {
+                finish();
+            }
+        }
+
+        /** Ends every worker, however reading stopped, so none is left waiting on its queue. */
+        private void finish() {
+            try {
+                for (Worker worker : workers) worker.queue.put(END);
+                for (Worker worker : workers) worker.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Worker worker : workers) {
+                    worker.queue.clear();
+                    worker.queue.offer(END);
+                    worker.thread.interrupt();
+                }
+            }
+            finishedNanos = System.nanoTime();
+            logger.atInfo().addKeyValue("offset", position).log(progress());
+        }
+
+        private int workerFor(WebhookJournal.Entry entry) {
+            if (workers.length == 1) return 0;
+            try {
+                keyParser.parse(entry.payload(), keyEvent);
+            } catch (Exception e) {
+                return 0;
+            }
+            CharSequence key = keyEvent.paypoint();
+            int hash = 0;
+            for (int i = 0; i < key.length(); i++) {
+                hash = 31 * hash + key.charAt(i);
+            }
+            hash ^= hash >>> 16;
+            return Math.floorMod(hash, workers.length);
+        }
+
+        /** Stops reading; entries already queued are still delivered. */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isDone() {
+            return finishedNanos != 0;
+        }
+
+        public long delivered() { return delivered.get(); }
+
+        public long failed() { return failed.get(); }
+
+        /** Offset of the next entry the reader will queue. */
+        public long position() { return position; }
+
+        /** One line of progress: entries, bytes covered, throughput and state. */
+        public String progress() {
+            long elapsed = (finishedNanos != 0 ? finishedNanos : System.nanoTime()) - startedNanos;
+            double seconds = Math.max(1e-9, elapsed / 1e9);
+            long span = Math.max(1, toOffset - fromOffset);
+            return String.format("replay %s: offsets %d-%d, %.1f%% read, %d delivered, %d failed, %.0f events/s over %.1fs",
+                    isDone() ? (cancelled ? "cancelled" : "done") : "running",
+                    fromOffset, toOffset, 100.0 * (position - fromOffset) / span,
+                    delivered.get(), failed.get(), delivered.get() / seconds, seconds);
+        }
+
+        private final class Worker implements Runnable {
+            final ArrayBlockingQueue<WebhookJournal.Entry> queue = new ArrayBlockingQueue<>(256);
+            final WebhookEventParser parser = new WebhookEventParser(aliases);
+            final WebhookEvent event = new WebhookEvent();
+            final Thread thread;
+
+            Worker(int index) {
+                this.thread = new Thread(this, "webhook-replay-" + index);
+                this.thread.setDaemon(true);
+            }
+
+            @Override
+            public void run() {
+                try {
+                    for (WebhookJournal.Entry entry = queue.take(); entry != END; entry = queue.take()) {
+                        boolean parsed = false;
+                        try {
+                            parsed = parser.parse(entry.payload(), event);
+                            event.offset = entry.offset();
+                        } catch (Exception e) {
+                            logger.atWarn().addKeyValue("offset", entry.offset()).log("Could not parse replayed payload: {}", e.getMessage());
+                        }
+                        try {
+                            sink.accept(event, parsed, entry);
+                            delivered.incrementAndGet();
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            logger.atWarn().addKeyValue("offset", entry.offset()).log("Replay failed: {}", e.getMessage());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
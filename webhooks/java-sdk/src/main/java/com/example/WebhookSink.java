@@ -0,0 +1,26 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A downstream consumer of webhook payloads, fed in batches by
+ * {@link WebhookFanout}. Each sink has its own queue and delivery thread, so
+ * {@link #write} may block or throw without holding up any other sink.
+ */
+public interface WebhookSink extends Closeable {
+
+    /** Short name used in log lines and metric labels. */
+    String name();
+
+    /**
+     * Delivers one batch, in journal order. Throwing hands the same batch back
+     * for a retry with backoff, so a write must be safe to repeat.
+     */
+    void write(List<WebhookJournal.Entry> batch) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
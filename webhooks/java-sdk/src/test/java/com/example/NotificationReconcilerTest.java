@@ -0,0 +1,143 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationReconcilerTest {
+
+    private static final int OWNER = 7;
+    private static final String TARGET = "https://tunnel.example/webhook";
+
+    @TempDir
+    Path directory;
+
+    /** In-memory notification API. */
+    private static final class FakeRemote implements NotificationReconciler.Remote {
+        final List<NotificationReconciler.Existing> live = new ArrayList<>();
+        final List<String> removed = new ArrayList<>();
+        int added;
+        int nextId = 100;
+        boolean listFails;
+
+        String seed(String eventType, String target) {
+            String id = Integer.toString(nextId++);
+            live.add(new NotificationReconciler.Existing(id, eventType, target));
+            return id;
+        }
+
+        @Override
+        public List<NotificationReconciler.Existing> list(int ownerId) throws IOException {
+            if (listFails) throw new IOException("list failed");
+            return new ArrayList<>(live);
+        }
+
+        @Override
+        public String add(NotificationReconciler.Registration registration) {
+            added++;
+            return seed(registration.eventType(), registration.target());
+        }
+
+        @Override
+        public void remove(String notificationId) {
+            removed.add(notificationId);
+            live.removeIf(existing -> existing.id.equals(notificationId));
+        }
+    }
+
+    private static NotificationReconciler.Registration approved(String target) {
+        return new NotificationReconciler.Registration(OWNER, "ApprovedPayment", target);
+    }
+
+    private NotificationReconciler reconciler(FakeRemote remote) throws IOException {
+        return new NotificationReconciler(remote, directory.resolve("notifications.properties"));
+    }
+
+    @Test
+    void addsAMissingRegistrationOnce() throws IOException {
+        FakeRemote remote = new FakeRemote();
+        NotificationReconciler reconciler = reconciler(remote);
+        reconciler.desire(Set.of(approved(TARGET)));
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        assertEquals(1, remote.added);
+        assertEquals(1, remote.live.size());
+        assertEquals(1, reconciler.recordedCount());
+    }
+
+    @Test
+    void adoptsAnExistingMatchAndRemovesItsDuplicates() throws IOException {
+        FakeRemote remote = new FakeRemote();
+        String kept = remote.seed("ApprovedPayment", TARGET);
+        String duplicate = remote.seed("ApprovedPayment", TARGET);
+        NotificationReconciler reconciler = reconciler(remote);
+        reconciler.desire(Set.of(approved(TARGET)));
+
+        reconciler.reconcile();
+
+        assertEquals(0, remote.added);
+        assertEquals(1, reconciler.adopted());
+        assertEquals(List.of(duplicate), remote.removed);
+        assertEquals(kept, remote.live.get(0).id);
+    }
+
+    @Test
+    void leavesOtherEventTypesAndTargetsAlone() throws IOException {
+        FakeRemote remote = new FakeRemote();
+        String declined = remote.seed("DeclinedPayment", TARGET);
+        String elsewhere = remote.seed("ApprovedPayment", "https://other.example/hook");
+        NotificationReconciler reconciler = reconciler(remote);
+        reconciler.desire(Set.of(approved(TARGET)));
+
+        reconciler.reconcile();
+
+        assertEquals(1, remote.added);
+        assertTrue(remote.removed.isEmpty());
+        assertTrue(remote.live.stream().anyMatch(existing -> existing.id.equals(declined)));
+        assertTrue(remote.live.stream().anyMatch(existing -> existing.id.equals(elsewhere)));
+    }
+
+    @Test
+    void removesARecordedTargetNoLongerWantedAfterRestart() throws IOException {
+        FakeRemote remote = new FakeRemote();
+        NotificationReconciler first = reconciler(remote);
+        first.desire(Set.of(approved("https://old-tunnel.example/webhook")));
+        first.reconcile();
+        String old = remote.live.get(0).id;
+
+        NotificationReconciler restarted = reconciler(remote);
+        restarted.desire(Set.of(approved(TARGET)));
+        restarted.reconcile();
+
+        assertEquals(List.of(old), remote.removed);
+        assertEquals(1, remote.live.size());
+        assertEquals(TARGET, remote.live.get(0).target);
+        assertEquals(1, restarted.recordedCount());
+    }
+
+    @Test
+    void trustsRecordedIdsWhenTheListingFails() throws IOException {
+        FakeRemote remote = new FakeRemote();
+        NotificationReconciler reconciler = reconciler(remote);
+        reconciler.desire(Set.of(approved(TARGET)));
+        reconciler.reconcile();
+
+        remote.listFails = true;
+        remote.seed("ApprovedPayment", TARGET); // a duplicate it cannot see
+        reconciler.reconcile();
+
+        assertEquals(1, remote.added);
+        assertTrue(remote.removed.isEmpty());
+        assertEquals(1, reconciler.errors());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger("test");
+    private Gate gate;
+
+    /** Records what it is given; the first event waits until the gate opens. */
+    private static final class Gate extends UnsynchronizedAppenderBase<ILoggingEvent> {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        final CountDownLatch open = new CountDownLatch(1);
+        final CountDownLatch first = new CountDownLatch(1);
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            if (first.getCount() > 0) {
+                first.countDown();
+                try {
+                    open.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(event.getFormattedMessage());
+        }
+    }
+
+    @BeforeEach
+    void startGate() {
+        // Events copy the MDC when they are queued; a bare context has no adapter.
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        gate = new Gate();
+        gate.setContext(context);
+        gate.start();
+    }
+
+    private RingBufferAppender ring(int capacity) {
+        RingBufferAppender ring = new RingBufferAppender();
+        ring.setContext(context);
+        ring.setName("ASYNC");
+        ring.setCapacity(capacity);
+        ring.addAppender(gate);
+        ring.start();
+        return ring;
+    }
+
+    private ILoggingEvent event(int i) {
+        return new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "event {}", null, new Object[] {i});
+    }
+
+    @Test
+    void dropsAndCountsEventsWhenFull() throws InterruptedException {
+        RingBufferAppender ring = ring(2);
+        ring.doAppend(event(0));
+        assertTrue(gate.first.await(5, TimeUnit.SECONDS)); // the worker holds event 0
+
+        for (int i = 1; i <= 4; i++) ring.doAppend(event(i));
+        assertEquals(3, ring.enqueued());
+        assertEquals(2, ring.dropped());
+        assertEquals(2, ring.queued());
+
+        gate.open.countDown();
+        ring.stop();
+        assertEquals(List.of("event 0", "event 1", "event 2"), gate.messages);
+    }
+
+    @Test
+    void stopWritesEverythingQueuedInOrder() {
+        gate.open.countDown();
+        RingBufferAppender ring = ring(1024);
+        for (int i = 0; i < 500; i++) ring.doAppend(event(i));
+        ring.stop();
+
+        assertEquals(500, gate.messages.size());
+        for (int i = 0; i < 500; i++) assertEquals("event " + i, gate.messages.get(i));
+        assertEquals(0, ring.dropped());
+    }
+
+    @Test
+    void wakesAnIdleWorker() throws InterruptedException {
+        gate.open.countDown();
+        RingBufferAppender ring = ring(16);
+        Thread.sleep(300); // long enough for the worker to back off to its longest park
+        long start = System.nanoTime();
+        ring.doAppend(event(0));
+        while (gate.messages.isEmpty() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5)) {
+            Thread.onSpinWait();
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50),
+                "an event logged to an idle ring is written without waiting out the park");
+        ring.stop();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookConsumerPipelineTest {
+
+    @TempDir
+    Path directory;
+
+    private WebhookJournal journal;
+    private WebhookConsumerPipeline pipeline;
+
+    @BeforeEach
+    void openJournal() throws IOException {
+        journal = WebhookJournal.open(new WebhookJournal.Config(directory, 64 * 1024, 1, 0, Long.MAX_VALUE));
+    }
+
+    @AfterEach
+    void close() {
+        if (pipeline != null) pipeline.close();
+        journal.close();
+    }
+
+    private WebhookConsumerPipeline pipeline(WebhookConsumerPipeline.EventSink sink) {
+        pipeline = new WebhookConsumerPipeline(journal, WebhookEventParser.defaultAliases(),
+                4, 64, 0, 0, 0, sink);
+        return pipeline;
+    }
+
+    private long append(String paypoint, int transId) throws IOException {
+        return journal.append(("{\"Event\":\"ApprovedPayment\",\"transId\":\"" + transId
+                + "\",\"entryPoint\":\"" + paypoint + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void neverCommitsPastAnEntryStillBeingHandled() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 20; i++) append("before-" + i, i);
+        long blocked = append("slow", 20);
+        for (int i = 21; i < 50; i++) append("after-" + i, i);
+
+        AtomicInteger others = new AtomicInteger();
+        pipeline((event, parsed, entry) -> {
+            if (entry.offset() != blocked) {
+                others.incrementAndGet();
+                return;
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).runUntil(journal.endOffset());
+        // Entries behind the slow one on its lane wait too; the other lanes drain.
+        int seen;
+        do {
+            seen = others.get();
+            Thread.sleep(50);
+        } while (others.get() != seen);
+        assertTrue(seen >= 20);
+        assertTrue(journal.committedOffset() <= blocked);
+
+        release.countDown();
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(journal.endOffset(), journal.committedOffset());
+    }
+
+    @Test
+    void deliversEachPaypointInJournalOrder() throws Exception {
+        Map<String, List<Long>> seen = new ConcurrentHashMap<>();
+        for (int i = 0; i < 200; i++) append("paypoint-" + i % 7, i);
+
+        pipeline((event, parsed, entry) -> seen
+                .computeIfAbsent(event.paypoint().toString(), p -> new ArrayList<>())
+                .add(entry.offset()))
+                .runUntil(journal.endOffset());
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+
+        assertEquals(7, seen.size());
+        for (List<Long> offsets : seen.values()) {
+            List<Long> sorted = new ArrayList<>(offsets);
+            sorted.sort(null);
+            assertEquals(sorted, offsets);
+        }
+    }
+
+    @Test
+    void holdsCommitsAtTheDownstreamFloor() throws Exception {
+        long third = 0;
+        for (int i = 0; i < 5; i++) {
+            long offset = append("paypoint", i);
+            if (i == 2) third = offset;
+        }
+        long floor = third;
+        pipeline((event, parsed, entry) -> { }).holdCommitsAt(() -> floor);
+
+        pipeline.runUntil(journal.endOffset());
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(floor, journal.committedOffset());
+
+        pipeline.holdCommitsAt(() -> Long.MAX_VALUE);
+        assertEquals(journal.endOffset(), journal.committedOffset());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private WebhookJournal open(int segmentBytes, long retainBytes) throws IOException {
+        return WebhookJournal.open(new WebhookJournal.Config(directory, segmentBytes, 1, 0, retainBytes));
+    }
+
+    private static byte[] payload(int i) {
+        return ("{\"Event\":\"ApprovedPayment\",\"transId\":\"" + i + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readAll(WebhookJournal.Cursor cursor) {
+        List<String> payloads = new ArrayList<>();
+        for (WebhookJournal.Entry entry = cursor.poll(); entry != null; entry = cursor.poll()) {
+            payloads.add(entry.utf8());
+        }
+        return payloads;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.toString().endsWith(".seg")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void recoveryStopsAtATornRecordAndKeepsTheCommittedOffset() throws IOException {
+        long end;
+        long committed;
+        try (WebhookJournal journal = open(4096, Long.MAX_VALUE)) {
+            for (int i = 0; i < 3; i++) journal.append(payload(i));
+            committed = journal.reader(0).poll().nextOffset();
+            journal.commit(committed);
+            end = journal.endOffset();
+        }
+        // A record whose size made it to disk but whose body did not.
+        try (FileChannel segment = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(64).putInt(0xdeadbeef).flip();
+            segment.write(header, end);
+        }
+
+        try (WebhookJournal journal = open(4096, Long.MAX_VALUE)) {
+            assertEquals(end, journal.endOffset());
+            assertEquals(committed, journal.committedOffset());
+            assertEquals(end, journal.append(payload(3)));
+            assertEquals(List.of(new String(payload(1), StandardCharsets.UTF_8),
+                    new String(payload(2), StandardCharsets.UTF_8),
+                    new String(payload(3), StandardCharsets.UTF_8)), readAll(journal.consumer()));
+        }
+    }
+
+    @Test
+    void retentionDeletesOnlyConsumedSegments() throws IOException {
+        try (WebhookJournal journal = open(256, 512)) {
+            for (int i = 0; i < 40; i++) journal.append(payload(i));
+            assertEquals(0, journal.startOffset(), "nothing is deleted before it is consumed");
+            int before = segmentFiles().size();
+            assertTrue(before > 2);
+
+            long consumedUpTo = journal.endOffset();
+            journal.commit(consumedUpTo);
+            for (int i = 40; i < 50; i++) journal.append(payload(i));
+
+            assertTrue(journal.startOffset() > 0);
+            assertTrue(journal.startOffset() <= consumedUpTo);
+            assertTrue(segmentFiles().size() < before);
+            assertEquals(10, readAll(journal.reader(consumedUpTo)).size());
+        }
+    }
+
+    @Test
+    void readerStartsAtTheNextRecordBoundary() throws IOException {
+        try (WebhookJournal journal = open(4096, Long.MAX_VALUE)) {
+            journal.append(payload(0));
+            long second = journal.append(payload(1));
+            journal.append(payload(2));
+
+            assertEquals(second, journal.recordAt(second));
+            assertEquals(second, journal.recordAt(1));
+            WebhookJournal.Entry entry = journal.reader(second - 3).poll();
+            assertEquals(second, entry.offset());
+            assertEquals(new String(payload(1), StandardCharsets.UTF_8), entry.utf8());
+            assertEquals(journal.endOffset(), journal.recordAt(journal.endOffset() - 1));
+        }
+    }
+
+    @Test
+    void corruptRecordSkipsTheRestOfItsSealedSegment() throws IOException {
+        try (WebhookJournal journal = open(128, Long.MAX_VALUE)) {
+            for (int i = 0; i < 10; i++) journal.append(payload(i));
+        }
+        Path first = segmentFiles().get(0);
+        String second = segmentFiles().get(1).getFileName().toString();
+        byte[] bytes = Files.readAllBytes(first);
+        bytes[20] ^= 1; // inside the first record's payload
+        Files.write(first, bytes);
+
+        try (WebhookJournal journal = open(128, Long.MAX_VALUE)) {
+            WebhookJournal.Entry entry = journal.reader(0).poll();
+            assertEquals(Long.parseLong(second.substring(0, second.length() - ".seg".length())), entry.offset());
+            assertNull(journal.reader(journal.endOffset()).poll());
+        }
+    }
+}